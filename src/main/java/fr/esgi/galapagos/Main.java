@@ -1,10 +1,24 @@
 package fr.esgi.galapagos;
 
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 import fr.esgi.galapagos.config.MongoConnection;
 import fr.esgi.galapagos.config.Neo4jConnection;
+import fr.esgi.galapagos.config.ServerConfig;
+import fr.esgi.galapagos.graphql.AsyncFetchers;
 import fr.esgi.galapagos.graphql.GraphQLHandler;
 import fr.esgi.galapagos.graphql.GraphQLProvider;
+import fr.esgi.galapagos.graphql.PersistedQueryStore;
+import fr.esgi.galapagos.graphql.SubscriptionHandler;
+import fr.esgi.galapagos.server.AdmissionController;
+import fr.esgi.galapagos.server.ExportHandler;
+import fr.esgi.galapagos.server.ImportHandler;
+import fr.esgi.galapagos.server.MetricsHandler;
+import fr.esgi.galapagos.server.OverloadFilter;
+import fr.esgi.galapagos.server.RequestExecutor;
+import fr.esgi.galapagos.server.RequestTimingFilter;
+import fr.esgi.galapagos.server.StatusHandler;
 import graphql.GraphQL;
 
 import java.io.IOException;
@@ -18,20 +32,36 @@ public class Main {
 
             GraphQL graphQL = GraphQLProvider.createGraphQL();
 
-            HttpServer server = HttpServer.create(new InetSocketAddress(8080), 0);
-            server.createContext("/graphql", new GraphQLHandler(graphQL));
-            server.setExecutor(null);
+            RequestExecutor executor = RequestExecutor.fromConfig();
+            int port = ServerConfig.getPort();
+
+            PersistedQueryStore persistedQueries = new PersistedQueryStore(ServerConfig.getPersistedQueryCacheSize());
+            AdmissionController admission = AdmissionController.fromConfig();
+
+            HttpServer server = HttpServer.create(new InetSocketAddress(port), ServerConfig.getBacklog());
+            context(server, "/graphql", new GraphQLHandler(graphQL, persistedQueries, admission, GraphQLProvider.getDocumentCache()))
+                    .getFilters().add(new RequestTimingFilter());
+            context(server, "/subscriptions", new SubscriptionHandler(graphQL));
+            context(server, "/status", new StatusHandler(executor, admission, GraphQLProvider.getDocumentCache()));
+            context(server, "/export", new ExportHandler())
+                    .getFilters().add(new RequestTimingFilter());
+            context(server, "/import", new ImportHandler(admission))
+                    .getFilters().add(new RequestTimingFilter());
+            context(server, "/metrics", new MetricsHandler());
+            server.setExecutor(executor);
 
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
                 MongoConnection.close();
                 Neo4jConnection.close();
                 server.stop(0);
+                executor.shutdown();
+                AsyncFetchers.shutdown();
                 System.out.println("Serveur arrêté.");
             }));
 
             server.start();
 
-            System.out.println("Serveur GraphQL prêt sur http://localhost:8080/graphql");
+            System.out.println("Serveur GraphQL prêt sur http://localhost:" + port + "/graphql (exécution : " + executor.getMode() + ")");
             System.out.println("Appuyez sur Ctrl+C pour arrêter le serveur");
 
             Thread.currentThread().join();
@@ -46,4 +76,11 @@ public class Main {
             System.err.println("Erreur: " + e.getMessage());
         }
     }
+
+    // Toutes les routes répondent 503 quand la file du pool borné est pleine (voir RequestExecutor)
+    private static HttpContext context(HttpServer server, String path, HttpHandler handler) {
+        HttpContext context = server.createContext(path, handler);
+        context.getFilters().add(new OverloadFilter());
+        return context;
+    }
 }
\ No newline at end of file
@@ -10,6 +10,32 @@ public class DatabaseConfig {
         return dotenv.get("MONGO_URI");
     }
 
+    // Création / vérification des index Mongo au démarrage (désactivable pour un utilisateur sans droits d'administration)
+    public static boolean isMongoIndexBootstrapEnabled() {
+        return getBoolean("MONGO_INDEX_BOOTSTRAP", true);
+    }
+
+    // Création / vérification des contraintes et index Neo4j au démarrage
+    public static boolean isNeo4jSchemaBootstrapEnabled() {
+        return getBoolean("NEO4J_SCHEMA_BOOTSTRAP", true);
+    }
+
+    // Conversion en tâche de fond des dates encore stockées en texte (orders / deliveries)
+    public static boolean isDateBackfillEnabled() {
+        return getBoolean("DATE_BACKFILL", true);
+    }
+
+    public static int getDateBackfillBatchSize() {
+        Integer value = getOptionalInt("DATE_BACKFILL_BATCH_SIZE");
+        return value != null ? value : 500;
+    }
+
+    // Pause entre deux lots, pour laisser la priorité au trafic normal
+    public static int getDateBackfillPauseMs() {
+        Integer value = getOptionalInt("DATE_BACKFILL_PAUSE_MS");
+        return value != null ? value : 100;
+    }
+
     public static String getNeo4jUri() {
         return dotenv.get("NEO4J_URI");
     }
@@ -21,4 +47,77 @@ public class DatabaseConfig {
     public static String getNeo4jPassword() {
         return dotenv.get("NEO4J_PASSWORD");
     }
+
+    // Pools de connexions : une valeur absente laisse la valeur par défaut du driver
+    // (ou, côté Mongo, l'option équivalente de MONGO_URI, ex : ?maxPoolSize=50)
+
+    public static Integer getMongoMaxPoolSize() {
+        return getOptionalInt("MONGO_MAX_POOL_SIZE");
+    }
+
+    public static Integer getMongoMinPoolSize() {
+        return getOptionalInt("MONGO_MIN_POOL_SIZE");
+    }
+
+    // Attente maximale d'une connexion libre avant l'échec de la commande (pool épuisé)
+    public static Integer getMongoMaxWaitMs() {
+        return getOptionalInt("MONGO_MAX_WAIT_MS");
+    }
+
+    public static Integer getMongoMaxConnectionLifeMs() {
+        return getOptionalInt("MONGO_MAX_CONNECTION_LIFE_MS");
+    }
+
+    public static Integer getMongoMaxConnectionIdleMs() {
+        return getOptionalInt("MONGO_MAX_CONNECTION_IDLE_MS");
+    }
+
+    public static Integer getMongoConnectTimeoutMs() {
+        return getOptionalInt("MONGO_CONNECT_TIMEOUT_MS");
+    }
+
+    public static Integer getMongoSocketTimeoutMs() {
+        return getOptionalInt("MONGO_SOCKET_TIMEOUT_MS");
+    }
+
+    public static Integer getNeo4jMaxPoolSize() {
+        return getOptionalInt("NEO4J_MAX_POOL_SIZE");
+    }
+
+    public static Integer getNeo4jAcquisitionTimeoutMs() {
+        return getOptionalInt("NEO4J_ACQUISITION_TIMEOUT_MS");
+    }
+
+    public static Integer getNeo4jMaxConnectionLifetimeMs() {
+        return getOptionalInt("NEO4J_MAX_CONNECTION_LIFETIME_MS");
+    }
+
+    public static Integer getNeo4jConnectionTimeoutMs() {
+        return getOptionalInt("NEO4J_CONNECTION_TIMEOUT_MS");
+    }
+
+    // Nombre d'enregistrements récupérés par aller-retour avec le serveur (-1 : tout d'un coup)
+    public static Integer getNeo4jFetchSize() {
+        return getOptionalInt("NEO4J_FETCH_SIZE");
+    }
+
+    private static boolean getBoolean(String key, boolean defaultValue) {
+        String value = dotenv.get(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value.trim());
+    }
+
+    private static Integer getOptionalInt(String key) {
+        String value = dotenv.get(key);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Valeur entière invalide pour " + key + " : " + value);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,169 @@
+package fr.esgi.galapagos.config;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import fr.esgi.galapagos.helper.DateHelper;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+// Migration des dates stockées en texte (LocalDateTime.toString()) vers des BSON Date.
+// Tourne en tâche de fond par petits lots : le serveur répond pendant la migration, et les codecs
+// lisent les deux formats. Chaque mise à jour est conditionnée à la valeur texte lue, une écriture
+// concurrente n'est donc jamais écrasée. Fin enregistrée dans schema_versions, une fois qu'il ne reste plus aucune
+// date en texte (une date illisible est laissée telle quelle et signalée à chaque démarrage).
+// Les filtres from / to ne dépendent pas de cette tâche : DateHelper.range lit aussi les dates encore en texte.
+public class DateBackfill {
+
+    private static final String VERSION_ID = "date_backfill";
+
+    private static final Map<String, List<String>> FIELDS = Map.of(
+            "orders", List.of("order_date"),
+            "deliveries", List.of("departure_date", "arrival_date", "scheduled_departure")
+    );
+
+    // Champs filtrés par from / to (ordersConnection, deliveries, orderStats, /export)
+    private static final Map<String, String> RANGE_FIELDS = Map.of(
+            "orders", "order_date",
+            "deliveries", "departure_date"
+    );
+
+    // Tant qu'il reste des dates en texte, nouvelle vérification au plus toutes les 30 secondes
+    private static final long RECHECK_MS = 30_000;
+
+    // Une fois vrai, le reste : les écritures (codecs, /import) ne produisent que des BSON Date
+    private static volatile boolean rangeFieldsMigrated;
+    private static volatile long nextCheck;
+
+    private DateBackfill() {
+    }
+
+    // Vrai s'il peut rester des dates en texte dans les champs filtrés par from / to (conversion en cours, désactivée
+    // par DATE_BACKFILL ou date illisible). Résultat mis en cache : une requête { $type: "string" } par champ et par
+    // période RECHECK_MS, puis plus aucune dès qu'il n'en reste plus.
+    public static boolean hasLegacyRangeDates(MongoDatabase database) {
+        if (rangeFieldsMigrated) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        if (now >= nextCheck) {
+            nextCheck = now + RECHECK_MS;
+            boolean remaining = false;
+            for (Map.Entry<String, String> field : RANGE_FIELDS.entrySet()) {
+                remaining |= database.getCollection(field.getKey())
+                        .find(Filters.type(field.getValue(), BsonType.STRING))
+                        .projection(Projections.include("_id"))
+                        .first() != null;
+            }
+            rangeFieldsMigrated = !remaining;
+        }
+        return !rangeFieldsMigrated;
+    }
+
+    public static void start(MongoDatabase database) {
+        MongoCollection<Document> versions = database.getCollection("schema_versions");
+        if (versions.find(Filters.eq("_id", VERSION_ID)).first() != null) {
+            return;
+        }
+        Thread.ofVirtual().name("date-backfill").start(() -> {
+            try {
+                run(database);
+                long remaining = countLegacy(database);
+                if (remaining > 0) {
+                    // Pas de marqueur : la migration est reprise (et les dates restantes signalées) au prochain démarrage
+                    System.err.println("Migration des dates incomplète : " + remaining + " date(s) illisible(s) laissée(s) en texte");
+                    return;
+                }
+                versions.replaceOne(Filters.eq("_id", VERSION_ID),
+                        new Document("_id", VERSION_ID).append("applied_at", Instant.now().toString()),
+                        new ReplaceOptions().upsert(true));
+                rangeFieldsMigrated = true;
+            } catch (RuntimeException e) {
+                // Erreur Mongo, de codec ou de conversion : reprise au prochain démarrage,
+                // les documents déjà convertis ne sont plus sélectionnés
+                System.err.println("Migration des dates interrompue : " + e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    private static long countLegacy(MongoDatabase database) {
+        long remaining = 0;
+        for (Map.Entry<String, List<String>> entry : FIELDS.entrySet()) {
+            MongoCollection<Document> collection = database.getCollection(entry.getKey());
+            for (String field : entry.getValue()) {
+                remaining += collection.countDocuments(Filters.type(field, BsonType.STRING));
+            }
+        }
+        return remaining;
+    }
+
+    private static void run(MongoDatabase database) throws InterruptedException {
+        int batchSize = DatabaseConfig.getDateBackfillBatchSize();
+        int pauseMs = DatabaseConfig.getDateBackfillPauseMs();
+
+        for (Map.Entry<String, List<String>> entry : FIELDS.entrySet()) {
+            MongoCollection<Document> collection = database.getCollection(entry.getKey());
+            for (String field : entry.getValue()) {
+                long converted = 0;
+                Object lastId = null;
+                List<Document> batch;
+                do {
+                    // Parcours par _id croissant : un texte illisible, laissé tel quel, n'est lu qu'une fois
+                    Bson filter = Filters.type(field, BsonType.STRING);
+                    if (lastId != null) filter = Filters.and(filter, Filters.gt("_id", lastId));
+                    batch = collection.find(filter)
+                            .projection(Projections.include(field))
+                            .sort(Sorts.ascending("_id"))
+                            .limit(batchSize)
+                            .into(new ArrayList<>());
+                    if (batch.isEmpty()) {
+                        break;
+                    }
+                    lastId = batch.getLast().get("_id");
+                    converted += convert(collection, field, batch);
+                    Thread.sleep(pauseMs);
+                } while (batch.size() == batchSize);
+
+                if (converted > 0) {
+                    System.out.println("Dates converties : " + entry.getKey() + "." + field + " (" + converted + ")");
+                }
+            }
+        }
+    }
+
+    private static long convert(MongoCollection<Document> collection, String field, List<Document> batch) {
+        List<WriteModel<Document>> updates = new ArrayList<>();
+        for (Document document : batch) {
+            String text = document.getString(field);
+            Instant value = DateHelper.fromLegacy(text);
+            if (value == null) {
+                System.err.println("Date illisible, non convertie : " + collection.getNamespace().getCollectionName()
+                        + "." + field + " (_id " + document.get("_id") + ") : " + text);
+                continue;
+            }
+            updates.add(new UpdateOneModel<>(
+                    Filters.and(Filters.eq("_id", document.get("_id")), Filters.eq(field, text)),
+                    Updates.set(field, Date.from(value))));
+        }
+        if (updates.isEmpty()) {
+            return 0;
+        }
+        return collection.bulkWrite(updates, new BulkWriteOptions().ordered(false)).getModifiedCount();
+    }
+}
@@ -1,8 +1,19 @@
 package fr.esgi.galapagos.config;
 
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.connection.ConnectionPoolSettings;
+import com.mongodb.connection.SocketSettings;
+import fr.esgi.galapagos.metrics.MongoCommandMetrics;
+import fr.esgi.galapagos.metrics.MongoPoolMetrics;
+import fr.esgi.galapagos.metrics.MongoSlowQueryListener;
+import fr.esgi.galapagos.metrics.SlowQueryLog;
+import fr.esgi.galapagos.model.codec.ModelCodecs;
+
+import java.util.concurrent.TimeUnit;
 
 public class MongoConnection {
 
@@ -14,11 +25,57 @@ public class MongoConnection {
     public static synchronized MongoClient getMongoClient() {
         if (mongoClient == null) {
             String uri = DatabaseConfig.getMongoUri();
-            mongoClient = MongoClients.create(uri);
+            MongoClientSettings.Builder settings = MongoClientSettings.builder()
+                    .applyConnectionString(new ConnectionString(uri))
+                    .codecRegistry(ModelCodecs.REGISTRY)
+                    .addCommandListener(new MongoCommandMetrics())
+                    .applyToConnectionPoolSettings(MongoConnection::configurePool)
+                    .applyToSocketSettings(MongoConnection::configureSocket);
+            // Journal des requêtes lentes désactivé : aucun listener sur le chemin de chaque commande
+            if (SlowQueryLog.isEnabled()) {
+                settings.addCommandListener(new MongoSlowQueryListener());
+            }
+            mongoClient = MongoClients.create(settings.build());
+
+            if (DatabaseConfig.isMongoIndexBootstrapEnabled()) {
+                MongoIndexes.bootstrap(getDatabase());
+            }
+            if (DatabaseConfig.isDateBackfillEnabled()) {
+                DateBackfill.start(getDatabase());
+            }
         }
         return mongoClient;
     }
 
+    // Appliqué après applyConnectionString : les variables d'environnement priment sur les options de MONGO_URI
+    private static void configurePool(ConnectionPoolSettings.Builder pool) {
+        pool.addConnectionPoolListener(new MongoPoolMetrics());
+        if (DatabaseConfig.getMongoMaxPoolSize() != null) {
+            pool.maxSize(DatabaseConfig.getMongoMaxPoolSize());
+        }
+        if (DatabaseConfig.getMongoMinPoolSize() != null) {
+            pool.minSize(DatabaseConfig.getMongoMinPoolSize());
+        }
+        if (DatabaseConfig.getMongoMaxWaitMs() != null) {
+            pool.maxWaitTime(DatabaseConfig.getMongoMaxWaitMs(), TimeUnit.MILLISECONDS);
+        }
+        if (DatabaseConfig.getMongoMaxConnectionLifeMs() != null) {
+            pool.maxConnectionLifeTime(DatabaseConfig.getMongoMaxConnectionLifeMs(), TimeUnit.MILLISECONDS);
+        }
+        if (DatabaseConfig.getMongoMaxConnectionIdleMs() != null) {
+            pool.maxConnectionIdleTime(DatabaseConfig.getMongoMaxConnectionIdleMs(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static void configureSocket(SocketSettings.Builder socket) {
+        if (DatabaseConfig.getMongoConnectTimeoutMs() != null) {
+            socket.connectTimeout(DatabaseConfig.getMongoConnectTimeoutMs(), TimeUnit.MILLISECONDS);
+        }
+        if (DatabaseConfig.getMongoSocketTimeoutMs() != null) {
+            socket.readTimeout(DatabaseConfig.getMongoSocketTimeoutMs(), TimeUnit.MILLISECONDS);
+        }
+    }
+
     public static MongoDatabase getDatabase() {
         String uri = DatabaseConfig.getMongoUri();
         String databaseName = uri.substring(uri.lastIndexOf('/') + 1);
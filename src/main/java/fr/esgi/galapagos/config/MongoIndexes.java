@@ -0,0 +1,174 @@
+package fr.esgi.galapagos.config;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.ReplaceOptions;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Index Mongo nécessaires aux chemins d'accès des services, créés au démarrage.
+// La version appliquée est enregistrée dans schema_versions : quand la liste change, incrémenter VERSION
+// (et déclarer dans OBSOLETE les index à supprimer). Les index manquants (collection supprimée par
+// DataInitializer par exemple) sont recréés à chaque démarrage.
+public class MongoIndexes {
+
+    private static final int VERSION = 5;
+    private static final String VERSION_ID = "mongo_indexes";
+
+    // weights : poids des champs d'un index texte (null pour un index classique)
+    private record IndexSpec(String collection, String name, Bson keys, boolean unique, Bson weights) {
+
+        private IndexSpec(String collection, String name, Bson keys, boolean unique) {
+            this(collection, name, keys, unique, null);
+        }
+    }
+
+    private static final List<IndexSpec> INDEXES = List.of(
+            // LockerService : port_id seul, port_id $in trié par (port_id, number), dernier numéro d'un port.
+            // Unique : deux casiers d'un même port ne peuvent pas avoir le même numéro.
+            new IndexSpec("lockers", "port_id_number", Indexes.ascending("port_id", "number"), true),
+            // Casiers d'un port par statut, number en dernier pour la pagination de lockersConnection
+            new IndexSpec("lockers", "port_id_status_number", Indexes.ascending("port_id", "status", "number"), false),
+            // BoxService / DataLoader : boîtes d'une commande, boîtes d'un client par statut.
+            // _id en dernier : la pagination par curseur (_id > after, tri sur _id) reste un parcours d'index.
+            new IndexSpec("boxes", "order_id_id", Indexes.ascending("order_id", "_id"), false),
+            new IndexSpec("boxes", "client_id_status_id", Indexes.ascending("client_id", "status", "_id"), false),
+            // OrderService.getOrders / getOrdersConnection(clientId, status)
+            new IndexSpec("orders", "client_id_status_id", Indexes.ascending("client_id", "status", "_id"), false),
+            // Filtres from / to : ordersConnection, orderStats, /export (dates en BSON Date depuis la version 4).
+            // _id en dernier : avec une borne, ordersConnection / deliveries paginent sur (date, _id)
+            new IndexSpec("orders", "order_date_id", Indexes.ascending("order_date", "_id"), false),
+            new IndexSpec("deliveries", "departure_date_id", Indexes.ascending("departure_date", "_id"), false),
+            // SeaplaneService.deleteSeaplane : livraisons en cours d'un hydravion
+            new IndexSpec("deliveries", "seaplane_id_status", Indexes.ascending("seaplane_id", "status"), false),
+            // searchProducts / searchClients : un seul index texte par collection, le nom compte le plus dans le score
+            new IndexSpec("products", "products_text", Indexes.compoundIndex(Indexes.text("name"), Indexes.text("description")), false,
+                    new Document("name", 10).append("description", 2)),
+            new IndexSpec("clients", "clients_text",
+                    Indexes.compoundIndex(Indexes.text("name"), Indexes.text("specialty"), Indexes.text("study")), false,
+                    new Document("name", 10).append("specialty", 3).append("study", 3))
+    );
+
+    // Index créés par une version précédente et devenus inutiles : collection -> noms
+    private static final Map<String, List<String>> OBSOLETE = Map.of(
+            // Versions 2 et 5 : remplacés par les mêmes index complétés de la clé de pagination
+            "lockers", List.of("port_id_status"),
+            "boxes", List.of("order_id", "client_id_status"),
+            "orders", List.of("client_id_status", "order_date"),
+            "deliveries", List.of("departure_date")
+    );
+
+    private MongoIndexes() {
+    }
+
+    public static void bootstrap(MongoDatabase database) {
+        MongoCollection<Document> versions = database.getCollection("schema_versions");
+        Document applied = versions.find(Filters.eq("_id", VERSION_ID)).first();
+        int appliedVersion = applied != null ? applied.getInteger("version", 0) : 0;
+
+        if (appliedVersion < VERSION) {
+            OBSOLETE.forEach((collection, names) -> names.forEach(name -> dropIndex(database, collection, name)));
+            for (IndexSpec index : INDEXES) {
+                createIndex(database, index);
+            }
+            versions.replaceOne(Filters.eq("_id", VERSION_ID),
+                    new Document("_id", VERSION_ID).append("version", VERSION).append("applied_at", Instant.now().toString()),
+                    new ReplaceOptions().upsert(true));
+            System.out.println("Index MongoDB : version " + appliedVersion + " -> " + VERSION);
+        }
+
+        verify(database);
+    }
+
+    // Signale (et recrée) les index manquants, puis les index non déclarés ou jamais utilisés
+    private static void verify(MongoDatabase database) {
+        Set<String> collections = new LinkedHashSet<>();
+        INDEXES.forEach(index -> collections.add(index.collection()));
+
+        for (String collectionName : collections) {
+            MongoCollection<Document> collection = database.getCollection(collectionName);
+            Set<String> existing = new HashSet<>();
+            for (Document index : collection.listIndexes()) {
+                existing.add(index.getString("name"));
+            }
+
+            Set<String> declared = new HashSet<>();
+            for (IndexSpec index : INDEXES) {
+                if (!index.collection().equals(collectionName)) {
+                    continue;
+                }
+                declared.add(index.name());
+                if (!existing.contains(index.name())) {
+                    System.err.println("Index MongoDB manquant : " + collectionName + "." + index.name() + ", création");
+                    createIndex(database, index);
+                }
+            }
+
+            for (String name : existing) {
+                if (!name.equals("_id_") && !declared.contains(name)) {
+                    System.out.println("Index MongoDB non déclaré : " + collectionName + "." + name);
+                }
+            }
+
+            logUnusedIndexes(collection, collectionName);
+        }
+    }
+
+    // $indexStats : compteurs d'utilisation depuis le dernier redémarrage de mongod
+    private static void logUnusedIndexes(MongoCollection<Document> collection, String collectionName) {
+        try {
+            for (Document stats : collection.aggregate(List.of(new Document("$indexStats", new Document())))) {
+                String name = stats.getString("name");
+                Document accesses = stats.get("accesses", Document.class);
+                if (name.equals("_id_") || accesses == null) {
+                    continue;
+                }
+                Number ops = accesses.get("ops", Number.class);
+                if (ops != null && ops.longValue() == 0) {
+                    System.out.println("Index MongoDB inutilisé : " + collectionName + "." + name + " (depuis " + accesses.get("since") + ")");
+                }
+            }
+        } catch (MongoException e) {
+            // $indexStats demande un rôle clusterMonitor ou équivalent
+            System.err.println("Statistiques d'index indisponibles pour " + collectionName + " : " + e.getMessage());
+        }
+    }
+
+    private static void createIndex(MongoDatabase database, IndexSpec index) {
+        try {
+            database.getCollection(index.collection())
+                    .createIndex(index.keys(), options(index));
+        } catch (MongoException e) {
+            // Ex : doublons existants pour un index unique. Le serveur démarre quand même, sans cet index.
+            System.err.println("Impossible de créer l'index " + index.collection() + "." + index.name() + " : " + e.getMessage());
+        }
+    }
+
+    private static IndexOptions options(IndexSpec index) {
+        IndexOptions options = new IndexOptions().name(index.name()).unique(index.unique());
+        if (index.weights() != null) {
+            // Données en français : racinisation et mots vides français
+            options.weights(index.weights()).defaultLanguage("french");
+        }
+        return options;
+    }
+
+    private static void dropIndex(MongoDatabase database, String collection, String name) {
+        try {
+            database.getCollection(collection).dropIndex(name);
+        } catch (MongoException e) {
+            System.err.println("Impossible de supprimer l'index " + collection + "." + name + " : " + e.getMessage());
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package fr.esgi.galapagos.config;
 
+import fr.esgi.galapagos.metrics.Neo4jPoolMetrics;
 import org.neo4j.driver.AuthTokens;
+import org.neo4j.driver.Config;
 import org.neo4j.driver.Driver;
 import org.neo4j.driver.GraphDatabase;
 
+import java.util.concurrent.TimeUnit;
+
 public class Neo4jConnection {
 
     private static Driver driver;
@@ -16,13 +20,39 @@ public class Neo4jConnection {
             String uri = DatabaseConfig.getNeo4jUri();
             String user = DatabaseConfig.getNeo4jUser();
             String password = DatabaseConfig.getNeo4jPassword();
-            driver = GraphDatabase.driver(uri, AuthTokens.basic(user, password));
+            driver = GraphDatabase.driver(uri, AuthTokens.basic(user, password), buildConfig());
+            Neo4jPoolMetrics.bind(driver);
+
+            if (DatabaseConfig.isNeo4jSchemaBootstrapEnabled()) {
+                Neo4jSchema.bootstrap(driver);
+            }
         }
         return driver;
     }
 
+    private static Config buildConfig() {
+        Config.ConfigBuilder config = Config.builder().withDriverMetrics();
+        if (DatabaseConfig.getNeo4jMaxPoolSize() != null) {
+            config.withMaxConnectionPoolSize(DatabaseConfig.getNeo4jMaxPoolSize());
+        }
+        if (DatabaseConfig.getNeo4jAcquisitionTimeoutMs() != null) {
+            config.withConnectionAcquisitionTimeout(DatabaseConfig.getNeo4jAcquisitionTimeoutMs(), TimeUnit.MILLISECONDS);
+        }
+        if (DatabaseConfig.getNeo4jMaxConnectionLifetimeMs() != null) {
+            config.withMaxConnectionLifetime(DatabaseConfig.getNeo4jMaxConnectionLifetimeMs(), TimeUnit.MILLISECONDS);
+        }
+        if (DatabaseConfig.getNeo4jConnectionTimeoutMs() != null) {
+            config.withConnectionTimeout(DatabaseConfig.getNeo4jConnectionTimeoutMs(), TimeUnit.MILLISECONDS);
+        }
+        if (DatabaseConfig.getNeo4jFetchSize() != null) {
+            config.withFetchSize(DatabaseConfig.getNeo4jFetchSize());
+        }
+        return config.build();
+    }
+
     public static void close() {
         if (driver != null) {
+            Neo4jPoolMetrics.bind(null);
             driver.close();
             driver = null;
         }
@@ -0,0 +1,70 @@
+package fr.esgi.galapagos.config;
+
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.exceptions.Neo4jException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Contraintes d'unicité et index Neo4j utilisés par les MATCH sur propriété des services,
+// pour que les recherches par id / nom soient des index seeks et non des parcours de label.
+// Les instructions sont idempotentes (IF NOT EXISTS) et vérifiées ensuite avec SHOW INDEXES.
+public class Neo4jSchema {
+
+    private record SchemaItem(String name, String statement) {}
+
+    private static final List<SchemaItem> ITEMS = List.of(
+            // (s:Seaplane {id: $id}) : toutes les opérations sur un hydravion
+            new SchemaItem("seaplane_id_unique",
+                    "CREATE CONSTRAINT seaplane_id_unique IF NOT EXISTS FOR (s:Seaplane) REQUIRE s.id IS UNIQUE"),
+            // (p:Port {id: $id}) : nombre de casiers, création d'hydravion
+            new SchemaItem("port_id_unique",
+                    "CREATE CONSTRAINT port_id_unique IF NOT EXISTS FOR (p:Port) REQUIRE p.id IS UNIQUE"),
+            new SchemaItem("island_id_unique",
+                    "CREATE CONSTRAINT island_id_unique IF NOT EXISTS FOR (i:Island) REQUIRE i.id IS UNIQUE"),
+            // (p:Port {name: $dep}) / (p:Port {name: $arr}) : assignation de vol
+            new SchemaItem("port_name",
+                    "CREATE INDEX port_name IF NOT EXISTS FOR (p:Port) ON (p.name)"),
+            new SchemaItem("island_name",
+                    "CREATE INDEX island_name IF NOT EXISTS FOR (i:Island) ON (i.name)")
+    );
+
+    private Neo4jSchema() {
+    }
+
+    public static void bootstrap(Driver driver) {
+        try (Session session = driver.session()) {
+            // Instructions de schéma en transactions auto-commit : elles ne peuvent pas être mêlées à des écritures
+            for (SchemaItem item : ITEMS) {
+                try {
+                    session.run(item.statement()).consume();
+                } catch (Neo4jException e) {
+                    // Ex : doublons existants pour une contrainte d'unicité. Le serveur démarre quand même.
+                    System.err.println("Impossible de créer " + item.name() + " : " + e.getMessage());
+                }
+            }
+            verify(session);
+        }
+    }
+
+    // Les contraintes d'unicité apparaissent aussi dans SHOW INDEXES, via leur index sous-jacent du même nom
+    private static void verify(Session session) {
+        Map<String, String> states = new HashMap<>();
+        for (Record record : session.run("SHOW INDEXES YIELD name, state").list()) {
+            states.put(record.get("name").asString(), record.get("state").asString());
+        }
+
+        for (SchemaItem item : ITEMS) {
+            String state = states.get(item.name());
+            if (state == null) {
+                System.err.println("Index Neo4j manquant : " + item.name());
+            } else if (!state.equals("ONLINE")) {
+                // POPULATING au premier démarrage sur une grosse base, FAILED à corriger à la main
+                System.err.println("Index Neo4j " + item.name() + " non disponible (état : " + state + ")");
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package fr.esgi.galapagos.config;
+
+import io.github.cdimascio.dotenv.Dotenv;
+
+public class ServerConfig {
+
+    private static final Dotenv dotenv = Dotenv.load();
+
+    public static int getPort() {
+        return getInt("SERVER_PORT", 8080);
+    }
+
+    // "virtual" (un thread virtuel par requête) ou "platform" (pool borné de threads système)
+    public static String getExecutorMode() {
+        return dotenv.get("SERVER_EXECUTOR", "virtual").toLowerCase();
+    }
+
+    public static int getPlatformThreads() {
+        return getInt("SERVER_THREADS", Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    public static int getQueueCapacity() {
+        return getInt("SERVER_QUEUE_CAPACITY", 1000);
+    }
+
+    // File d'attente TCP des connexions pas encore acceptées (0 : valeur par défaut du système)
+    public static int getBacklog() {
+        return getInt("SERVER_BACKLOG", 128);
+    }
+
+    public static boolean isAdmissionControlEnabled() {
+        return getBoolean("ADMISSION_ENABLED", true);
+    }
+
+    public static int getAdmissionInitialLimit() {
+        return getInt("ADMISSION_INITIAL_LIMIT", 20);
+    }
+
+    public static int getAdmissionMinLimit() {
+        return getInt("ADMISSION_MIN_LIMIT", 4);
+    }
+
+    public static int getAdmissionMaxLimit() {
+        return getInt("ADMISSION_MAX_LIMIT", 200);
+    }
+
+    // Au-delà de cette complexité (directive @cost), une lecture est refusée en premier en cas de surcharge
+    public static int getAdmissionHeavyReadComplexity() {
+        return getInt("ADMISSION_HEAVY_READ_COMPLEXITY", 1000);
+    }
+
+    public static int getDocumentCacheSize() {
+        return getInt("GRAPHQL_DOCUMENT_CACHE_SIZE", 500);
+    }
+
+    public static int getPersistedQueryCacheSize() {
+        return getInt("GRAPHQL_PERSISTED_QUERY_CACHE_SIZE", 1000);
+    }
+
+    public static int getMaxQueryDepth() {
+        return getInt("GRAPHQL_MAX_DEPTH", 15);
+    }
+
+    public static int getMaxQueryComplexity() {
+        return getInt("GRAPHQL_MAX_COMPLEXITY", 10000);
+    }
+
+    public static boolean isAsyncFetchers() {
+        return getBoolean("GRAPHQL_ASYNC_FETCHERS", true);
+    }
+
+    // 0 : un thread virtuel par appel de service, sinon taille du pool de threads système
+    public static int getFetcherThreads() {
+        return getInt("GRAPHQL_FETCHER_THREADS", 0);
+    }
+
+    // Nombre maximum d'opérations dans un batch POST /graphql
+    public static int getMaxBatchSize() {
+        return getInt("GRAPHQL_MAX_BATCH_SIZE", 20);
+    }
+
+    // Connexions SSE ouvertes en même temps sur /subscriptions (chacune occupe un thread de requête)
+    public static int getMaxSubscriptions() {
+        return getInt("GRAPHQL_MAX_SUBSCRIPTIONS", 100);
+    }
+
+    // Taille de page des champs *Connection quand first est absent, et valeur maximale acceptée pour first
+    public static int getDefaultPageSize() {
+        return getInt("GRAPHQL_DEFAULT_PAGE_SIZE", 20);
+    }
+
+    public static int getMaxPageSize() {
+        return getInt("GRAPHQL_MAX_PAGE_SIZE", 100);
+    }
+
+    // Documents lus par aller-retour avec MongoDB pendant un export /export/{collection}
+    public static int getExportBatchSize() {
+        return getInt("EXPORT_BATCH_SIZE", 1000);
+    }
+
+    // Exports exécutés en même temps (chacun occupe un thread de requête jusqu'à la fin du transfert)
+    public static int getExportMaxConcurrent() {
+        return getInt("EXPORT_MAX_CONCURRENT", 2);
+    }
+
+    // Documents envoyés par bulkWrite pendant un import /import/{collection}
+    public static int getImportChunkSize() {
+        return getInt("IMPORT_CHUNK_SIZE", 500);
+    }
+
+    // Longueur maximale d'une ligne NDJSON importée (caractères) : une ligne plus longue est rapportée en erreur
+    public static int getImportMaxLineLength() {
+        return getInt("IMPORT_MAX_LINE_LENGTH", 1_000_000);
+    }
+
+    // Taille maximale du corps d'un import, après décompression gzip (0 : pas de limite)
+    public static int getImportMaxBodyBytes() {
+        return getInt("IMPORT_MAX_BODY_BYTES", 256 * 1024 * 1024);
+    }
+
+    // Durée à partir de laquelle une requête Mongo / Neo4j est journalisée. Diagnostic à activer au besoin
+    // (ex : 200) : par défaut (négatif) le journal est désactivé et son instrumentation n'est pas installée.
+    public static long getSlowQueryThresholdMs() {
+        return getInt("SLOW_QUERY_THRESHOLD_MS", -1);
+    }
+
+    public static int getSlowQueryLogSize() {
+        return getInt("SLOW_QUERY_LOG_SIZE", 100);
+    }
+
+    static boolean getBoolean(String key, boolean defaultValue) {
+        String value = dotenv.get(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value.trim());
+    }
+
+    static int getInt(String key, int defaultValue) {
+        String value = dotenv.get(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Valeur entière invalide pour " + key + " : " + value);
+        }
+    }
+}
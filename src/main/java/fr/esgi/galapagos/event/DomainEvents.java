@@ -0,0 +1,16 @@
+package fr.esgi.galapagos.event;
+
+import fr.esgi.galapagos.model.mongodb.Locker;
+import fr.esgi.galapagos.model.mongodb.Order;
+import fr.esgi.galapagos.model.neo4j.Seaplane;
+
+// Événements publiés par les services une fois l'écriture validée, consommés par les subscriptions GraphQL
+public class DomainEvents {
+
+    public static final EventTopic<Seaplane> SEAPLANE_UPDATED = new EventTopic<>();
+    public static final EventTopic<Locker> LOCKER_STATUS_CHANGED = new EventTopic<>();
+    public static final EventTopic<Order> ORDER_STATUS_CHANGED = new EventTopic<>();
+
+    private DomainEvents() {
+    }
+}
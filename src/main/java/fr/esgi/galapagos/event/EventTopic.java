@@ -0,0 +1,82 @@
+package fr.esgi.galapagos.event;
+
+import org.reactivestreams.FlowAdapters;
+import org.reactivestreams.Publisher;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.function.Predicate;
+
+// Canal de diffusion d'un type d'événement vers les abonnements GraphQL.
+// Chaque abonné a son propre tampon borné : un client lent perd des événements au lieu de bloquer les services.
+// publish() est appelé par le service après l'écriture : une erreur de filtre ne remonte jamais jusqu'à lui.
+public class EventTopic<T> {
+
+    private static final int BUFFER_SIZE = 256;
+    // Un canal créé mais jamais consommé (exécution en erreur, client parti) est libéré après ce délai
+    private static final long UNSUBSCRIBED_TTL_MS = 60_000;
+    // Les abonnés SSE écrivent sur leur socket (écriture bloquante) : threads virtuels dédiés plutôt que le commonPool
+    private static final Executor DELIVERY = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("event-delivery-", 0).factory());
+
+    private final List<Channel<T>> channels = new CopyOnWriteArrayList<>();
+
+    public Publisher<T> subscribe(Predicate<T> filter) {
+        Channel<T> channel = new Channel<>(filter);
+        channels.add(channel);
+        return FlowAdapters.toPublisher(channel);
+    }
+
+    public void publish(T event) {
+        for (Channel<T> channel : channels) {
+            if (channel.isAbandoned()) {
+                channel.close();
+                channels.remove(channel);
+            } else {
+                try {
+                    if (channel.filter.test(event)) {
+                        channel.offer(event, (subscriber, dropped) -> false);
+                    }
+                } catch (RuntimeException e) {
+                    System.err.println("Événement non diffusé à un abonné : " + e);
+                }
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return channels.size();
+    }
+
+    private static final class Channel<T> extends SubmissionPublisher<T> {
+
+        private final Predicate<T> filter;
+        private final long createdAt = System.currentTimeMillis();
+        private volatile boolean subscribed;
+
+        private Channel(Predicate<T> filter) {
+            super(DELIVERY, BUFFER_SIZE);
+            this.filter = filter;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super T> subscriber) {
+            subscribed = true;
+            super.subscribe(subscriber);
+        }
+
+        private boolean isAbandoned() {
+            if (isClosed()) {
+                return true;
+            }
+            if (subscribed) {
+                return getNumberOfSubscribers() == 0;
+            }
+            return System.currentTimeMillis() - createdAt > UNSUBSCRIBED_TTL_MS;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package fr.esgi.galapagos.graphql;
+
+import fr.esgi.galapagos.config.ServerConfig;
+import graphql.schema.AsyncDataFetcher;
+import graphql.schema.DataFetcher;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Exécution asynchrone des data fetchers de Query : chaque appel de service renvoie un CompletableFuture
+// exécuté sur un executor dédié, ce qui permet à graphql-java de résoudre en parallèle les champs racine
+// indépendants (ex : seaplanes sur Neo4j et orders sur Mongo dans la même requête).
+public class AsyncFetchers {
+
+    private static ExecutorService executor;
+
+    private AsyncFetchers() {
+    }
+
+    public static <T> DataFetcher<?> async(DataFetcher<T> fetcher) {
+        if (!ServerConfig.isAsyncFetchers()) {
+            return fetcher;
+        }
+        return AsyncDataFetcher.async(fetcher, getExecutor());
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            int threads = ServerConfig.getFetcherThreads();
+            executor = threads > 0
+                    ? Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("fetcher-", 0).factory())
+                    : Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("fetcher-", 0).factory());
+        }
+        return executor;
+    }
+
+    public static synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+            executor = null;
+        }
+    }
+}
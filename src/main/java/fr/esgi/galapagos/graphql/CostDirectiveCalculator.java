@@ -0,0 +1,46 @@
+package fr.esgi.galapagos.graphql;
+
+import fr.esgi.galapagos.config.ServerConfig;
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.FieldComplexityEnvironment;
+import graphql.schema.GraphQLAppliedDirective;
+import graphql.schema.GraphQLAppliedDirectiveArgument;
+
+// Coût d'un champ lu depuis la directive @cost des fichiers .graphqls :
+// coût = value + multiplier x coût des sous-champs (multiplier = taille estimée d'une liste).
+// Un champ sans directive coûte 1 + le coût de ses sous-champs.
+// Pour un champ paginé (argument first), le multiplicateur est la taille de page réellement servie.
+public class CostDirectiveCalculator implements FieldComplexityCalculator {
+
+    public static final String DIRECTIVE_NAME = "cost";
+
+    @Override
+    public int calculate(FieldComplexityEnvironment environment, int childComplexity) {
+        GraphQLAppliedDirective cost = environment.getFieldDefinition().getAppliedDirective(DIRECTIVE_NAME);
+        if (cost == null) {
+            return 1 + childComplexity;
+        }
+
+        int value = intArgument(cost, "value", 1);
+        int multiplier = environment.getFieldDefinition().getArgument("first") != null
+                ? pageSize(environment.getArguments().get("first"))
+                : intArgument(cost, "multiplier", 1);
+        return value + multiplier * childComplexity;
+    }
+
+    private int pageSize(Object first) {
+        int max = ServerConfig.getMaxPageSize();
+        if (first instanceof Number number) {
+            return Math.clamp(number.intValue(), 0, max);
+        }
+        return Math.min(ServerConfig.getDefaultPageSize(), max);
+    }
+
+    private int intArgument(GraphQLAppliedDirective directive, String name, int defaultValue) {
+        GraphQLAppliedDirectiveArgument argument = directive.getArgument(name);
+        if (argument == null || argument.getValue() == null) {
+            return defaultValue;
+        }
+        return ((Number) argument.getValue()).intValue();
+    }
+}
@@ -0,0 +1,67 @@
+package fr.esgi.galapagos.graphql;
+
+import fr.esgi.galapagos.model.mongodb.Client;
+import fr.esgi.galapagos.model.mongodb.Locker;
+import fr.esgi.galapagos.model.mongodb.Order;
+import fr.esgi.galapagos.model.mongodb.Product;
+import fr.esgi.galapagos.service.ClientService;
+import fr.esgi.galapagos.service.LockerService;
+import fr.esgi.galapagos.service.OrderService;
+import fr.esgi.galapagos.service.ProductService;
+import org.bson.types.ObjectId;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderFactory;
+import org.dataloader.DataLoaderRegistry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+// DataLoaders des champs imbriqués (Port.lockers, Order.client, Box.order...) :
+// les clés demandées pendant l'exécution d'un niveau de la requête sont regroupées en un seul appel $in.
+// Un registre est créé par requête HTTP, le cache des DataLoaders ne survit donc pas à la requête.
+public class DataLoaders {
+
+    public static final String LOCKERS_BY_PORT = "lockersByPort";
+    public static final String LOCKER_COUNT_BY_PORT = "lockerCountByPort";
+    public static final String CLIENT_BY_ID = "clientById";
+    public static final String ORDER_BY_ID = "orderById";
+    public static final String PRODUCT_BY_ID = "productById";
+
+    private DataLoaders() {
+    }
+
+    public static DataLoaderRegistry newRegistry(LockerService lockerService, ClientService clientService,
+                                                 OrderService orderService, ProductService productService) {
+        DataLoader<Integer, List<Locker>> lockersByPort = DataLoaderFactory.newDataLoader(portIds -> {
+            Map<Integer, List<Locker>> lockers = lockerService.getLockersByPortIds(portIds);
+            return CompletableFuture.completedFuture(portIds.stream()
+                    .map(portId -> lockers.getOrDefault(portId, List.of()))
+                    .toList());
+        });
+
+        DataLoader<Integer, Integer> lockerCountByPort = DataLoaderFactory.newDataLoader(portIds -> {
+            Map<Integer, Integer> counts = lockerService.countLockersByPortIds(portIds);
+            return CompletableFuture.completedFuture(portIds.stream()
+                    .map(portId -> counts.getOrDefault(portId, 0))
+                    .toList());
+        });
+
+        DataLoader<ObjectId, Client> clientById = DataLoaderFactory.newMappedDataLoader(ids ->
+                CompletableFuture.completedFuture(clientService.getClientsByIds(ids)));
+
+        DataLoader<ObjectId, Order> orderById = DataLoaderFactory.newMappedDataLoader(ids ->
+                CompletableFuture.completedFuture(orderService.getOrdersByIds(ids)));
+
+        DataLoader<ObjectId, Product> productById = DataLoaderFactory.newMappedDataLoader(ids ->
+                CompletableFuture.completedFuture(productService.getProductsByIds(ids)));
+
+        DataLoaderRegistry registry = new DataLoaderRegistry();
+        registry.register(LOCKERS_BY_PORT, lockersByPort);
+        registry.register(LOCKER_COUNT_BY_PORT, lockerCountByPort);
+        registry.register(CLIENT_BY_ID, clientById);
+        registry.register(ORDER_BY_ID, orderById);
+        registry.register(PRODUCT_BY_ID, productById);
+        return registry;
+    }
+}
@@ -0,0 +1,260 @@
+package fr.esgi.galapagos.graphql;
+
+import fr.esgi.galapagos.utils.HashUtils;
+import graphql.ErrorType;
+import graphql.ExecutionInput;
+import graphql.GraphqlErrorBuilder;
+import graphql.analysis.QueryComplexityCalculator;
+import graphql.execution.CoercedVariables;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.language.Document;
+import graphql.language.OperationDefinition;
+import graphql.schema.GraphQLSchema;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Cache LRU des documents GraphQL déjà parsés et validés, indexé par le hash SHA-256 de la requête.
+// Les requêtes identiques envoyées en boucle par le front ne repassent plus par le parsing ni la validation.
+public class DocumentCache implements PreparsedDocumentProvider {
+
+    // Clé du GraphQLContext positionnée pour les requêtes GET : seules les opérations de lecture sont autorisées
+    public static final String READ_ONLY = "galapagos.readOnly";
+
+    // Opération demandée par une requête, connue avant l'exécution (contrôle d'admission).
+    // type null : document illisible ou opération introuvable, l'erreur est renvoyée par l'exécution.
+    public record OperationInfo(OperationDefinition.Operation type, int complexity) {
+
+        public boolean isMutation() {
+            return type == OperationDefinition.Operation.MUTATION;
+        }
+    }
+
+    private static final OperationInfo UNKNOWN = new OperationInfo(null, 0);
+    private static final CostDirectiveCalculator COST = new CostDirectiveCalculator();
+
+    private final int maxSize;
+    private final Map<String, PreparsedDocumentEntry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public DocumentCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparsedDocumentEntry> eldest) {
+                return size() > DocumentCache.this.maxSize;
+            }
+        };
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(ExecutionInput executionInput,
+                                                                      Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        String key = HashUtils.sha256Hex(executionInput.getQuery());
+
+        PreparsedDocumentEntry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+
+        if (entry != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            // Parsing hors verrou : deux requêtes identiques simultanées peuvent parser en double, sans conséquence
+            entry = parseAndValidateFunction.apply(executionInput);
+            synchronized (entries) {
+                entries.put(key, entry);
+            }
+        }
+
+        if (Boolean.TRUE.equals(executionInput.getGraphQLContext().get(READ_ONLY))
+                && selectsMutation(entry, executionInput.getOperationName())) {
+            return CompletableFuture.completedFuture(new PreparsedDocumentEntry(GraphqlErrorBuilder.newError()
+                    .message("Les mutations ne sont pas autorisées en GET, utilisez POST.")
+                    .errorType(ErrorType.OperationNotSupported)
+                    .build()));
+        }
+        return CompletableFuture.completedFuture(entry);
+    }
+
+    // Appelé avant l'admission, donc sans parsing : un document déjà en cache est décrit à partir de sa version parsée
+    // (complexité calculée pour les lectures uniquement, avec les mêmes règles que MaxQueryComplexityInstrumentation).
+    // Un document jamais vu est seulement parcouru pour trouver le type de l'opération, complexité inconnue (0) :
+    // il est parsé et validé une seule fois, à l'exécution, qui le met en cache pour les requêtes suivantes.
+    public OperationInfo describe(String query, String operationName, Map<String, Object> variables, GraphQLSchema schema) {
+        PreparsedDocumentEntry entry;
+        synchronized (entries) {
+            entry = entries.get(HashUtils.sha256Hex(query));
+        }
+
+        if (entry == null) {
+            OperationDefinition.Operation type = scanOperation(query, operationName);
+            return type != null ? new OperationInfo(type, 0) : UNKNOWN;
+        }
+        if (entry.hasErrors()) {
+            return UNKNOWN;
+        }
+        Document document = entry.getDocument();
+
+        OperationDefinition operation = selectOperation(document, operationName);
+        if (operation == null) {
+            return UNKNOWN;
+        }
+        if (operation.getOperation() != OperationDefinition.Operation.QUERY) {
+            return new OperationInfo(operation.getOperation(), 0);
+        }
+        try {
+            int complexity = QueryComplexityCalculator.newCalculator()
+                    .fieldComplexityCalculator(COST)
+                    .schema(schema)
+                    .document(document)
+                    .operationName(operation.getName())
+                    .variables(CoercedVariables.of(variables != null ? variables : Map.of()))
+                    .build()
+                    .calculate();
+            return new OperationInfo(operation.getOperation(), complexity);
+        } catch (RuntimeException e) {
+            // Document invalide pour le schéma : rejeté par la validation, sans coût d'exécution
+            return new OperationInfo(operation.getOperation(), 0);
+        }
+    }
+
+    // Type de l'opération choisie, lu dans le texte sans le parser : commentaires, chaînes, directives et contenu des
+    // accolades / parenthèses sont ignorés, seuls les mots de premier niveau (mot-clé puis nom) comptent.
+    // null si aucune opération ne correspond ou si le texte n'a pas la forme d'un document GraphQL.
+    static OperationDefinition.Operation scanOperation(String query, String operationName) {
+        int length = query.length();
+        int depth = 0;
+        String keyword = null;
+        String name = null;
+        int i = 0;
+        while (i < length) {
+            char c = query.charAt(i);
+            if (c == '#') {
+                while (i < length && query.charAt(i) != '\n' && query.charAt(i) != '\r') i++;
+            } else if (c == '"') {
+                i = skipString(query, i);
+            } else if (c == '{' || c == '(' || c == '[') {
+                if (c == '{' && depth == 0) {
+                    // Corps d'une définition : forme abrégée { ... } (requête anonyme), opération ou fragment
+                    if (keyword == null) {
+                        if (operationName == null) return OperationDefinition.Operation.QUERY;
+                    } else if (!keyword.equals("fragment") && (operationName == null || operationName.equals(name))) {
+                        return operation(keyword);
+                    }
+                    keyword = null;
+                    name = null;
+                }
+                depth++;
+                i++;
+            } else if (c == '}' || c == ')' || c == ']') {
+                depth--;
+                i++;
+            } else if (c == '@' && depth == 0) {
+                i++;
+                while (i < length && isNamePart(query.charAt(i))) i++;
+            } else if (depth == 0 && isNamePart(c) && !(c >= '0' && c <= '9')) {
+                int start = i;
+                while (i < length && isNamePart(query.charAt(i))) i++;
+                String word = query.substring(start, i);
+                if (keyword == null) {
+                    if (!word.equals("fragment") && operation(word) == null) return null;
+                    keyword = word;
+                } else if (name == null) {
+                    name = word;
+                }
+            } else {
+                i++;
+            }
+        }
+        return null;
+    }
+
+    private static OperationDefinition.Operation operation(String keyword) {
+        return switch (keyword) {
+            case "query" -> OperationDefinition.Operation.QUERY;
+            case "mutation" -> OperationDefinition.Operation.MUTATION;
+            case "subscription" -> OperationDefinition.Operation.SUBSCRIPTION;
+            default -> null;
+        };
+    }
+
+    private static boolean isNamePart(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    // Position qui suit la chaîne ("..." ou bloc """...""") commençant en start
+    private static int skipString(String query, int start) {
+        if (query.startsWith("\"\"\"", start)) {
+            int i = start + 3;
+            while (i < query.length()) {
+                if (query.charAt(i) == '\\' && query.startsWith("\"\"\"", i + 1)) {
+                    i += 4;
+                } else if (query.startsWith("\"\"\"", i)) {
+                    return i + 3;
+                } else {
+                    i++;
+                }
+            }
+            return i;
+        }
+        int i = start + 1;
+        while (i < query.length()) {
+            char c = query.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '"' || c == '\n') {
+                return i + 1;
+            } else {
+                i++;
+            }
+        }
+        return i;
+    }
+
+    private OperationDefinition selectOperation(Document document, String operationName) {
+        for (OperationDefinition operation : document.getDefinitionsOfType(OperationDefinition.class)) {
+            if (operationName == null || operationName.equals(operation.getName())) {
+                return operation;
+            }
+        }
+        return null;
+    }
+
+    private boolean selectsMutation(PreparsedDocumentEntry entry, String operationName) {
+        if (entry.hasErrors()) {
+            return false;
+        }
+        for (OperationDefinition operation : entry.getDocument().getDefinitionsOfType(OperationDefinition.class)) {
+            boolean selected = operationName == null || operationName.equals(operation.getName());
+            if (selected && operation.getOperation() == OperationDefinition.Operation.MUTATION) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getSize() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+}
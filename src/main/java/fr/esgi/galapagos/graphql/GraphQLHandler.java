@@ -1,74 +1,319 @@
 package fr.esgi.galapagos.graphql;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 import com.google.gson.reflect.TypeToken;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import fr.esgi.galapagos.config.ServerConfig;
+import fr.esgi.galapagos.server.AdmissionController;
+import fr.esgi.galapagos.server.JsonResponseWriter;
+import fr.esgi.galapagos.utils.HashUtils;
 import graphql.ExecutionInput;
 import graphql.ExecutionResult;
 import graphql.GraphQL;
+import org.dataloader.DataLoaderRegistry;
 
 import java.io.IOException;
-import java.io.OutputStream;
+import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class GraphQLHandler implements HttpHandler {
 
+    private static final Type BATCH_TYPE = new TypeToken<List<Map<String, Object>>>() {}.getType();
+    private static final String RETRY_AFTER_SECONDS = "1";
+
     private final GraphQL graphQL;
+    private final PersistedQueryStore persistedQueries;
+    private final AdmissionController admission;
+    private final DocumentCache documentCache;
     private final Gson gson = new Gson();
+    private final JsonResponseWriter responseWriter = new JsonResponseWriter(gson);
+    private final int maxBatchSize = ServerConfig.getMaxBatchSize();
 
-    public GraphQLHandler(GraphQL graphQL) {
+    public GraphQLHandler(GraphQL graphQL, PersistedQueryStore persistedQueries, AdmissionController admission,
+                          DocumentCache documentCache) {
         this.graphQL = graphQL;
+        this.persistedQueries = persistedQueries;
+        this.admission = admission;
+        this.documentCache = documentCache;
     }
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
         exchange.getResponseHeaders().add("Access-Control-Allow-Methods", "GET, POST, OPTIONS");
-        exchange.getResponseHeaders().add("Access-Control-Allow-Headers", "Content-Type, Authorization");
+        exchange.getResponseHeaders().add("Access-Control-Allow-Headers", "Content-Type, Authorization, If-None-Match");
+        exchange.getResponseHeaders().add("Access-Control-Expose-Headers", "ETag");
 
         if (exchange.getRequestMethod().equalsIgnoreCase("OPTIONS")) {
             exchange.sendResponseHeaders(204, -1);
             return;
         }
 
-        if (!exchange.getRequestMethod().equalsIgnoreCase("POST")) {
+        boolean isGet = exchange.getRequestMethod().equalsIgnoreCase("GET");
+        if (!isGet && !exchange.getRequestMethod().equalsIgnoreCase("POST")) {
             exchange.sendResponseHeaders(405, -1);
             return;
         }
 
-        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
-        TypeToken<Map<String, Object>> typeToken = new TypeToken<>() {};
-        Map<String, Object> request = gson.fromJson(body, typeToken.getType());
+        GraphQLRequest request;
+        try {
+            if (!isGet) {
+                String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                if (body.stripLeading().startsWith("[")) {
+                    handleBatch(exchange, body);
+                    return;
+                }
+                request = GraphQLRequest.fromJson(body, gson);
+            } else {
+                request = GraphQLRequest.fromQueryString(exchange.getRequestURI().getRawQuery(), gson);
+            }
+        } catch (IllegalArgumentException e) {
+            responseWriter.send(exchange, 400, error(e.getMessage(), "BAD_REQUEST"));
+            return;
+        }
+        handleSingle(exchange, request, isGet);
+    }
 
+    private void handleSingle(HttpExchange exchange, GraphQLRequest request, boolean isGet) throws IOException {
         if (request == null) {
-            exchange.sendResponseHeaders(400, -1);
+            responseWriter.send(exchange, 400, error("Requête GraphQL manquante", "BAD_REQUEST"));
             return;
         }
 
-        String query = (String) request.get("query");
-        if (query == null) {
-            exchange.sendResponseHeaders(400, -1);
+        String query;
+        try {
+            query = resolveQuery(request);
+        } catch (InvalidRequestException e) {
+            responseWriter.send(exchange, e.status, e.body);
+            return;
+        }
+
+        // Type d'opération et complexité connus sans parser avant l'admission (voir DocumentCache.describe) :
+        // une requête refusée ne coûte pas de parsing. En GET les mutations sont refusées de toute façon : pas de priorité.
+        DocumentCache.OperationInfo operation = describe(request, query);
+        AdmissionController.Permit permit = admission.tryAcquire(
+                admission.priorityOf(!isGet && operation.isMutation(), operation.complexity()));
+        if (permit == null) {
+            reject(exchange);
+            return;
+        }
+        try {
+            ExecutionInput executionInput = buildInput(request, query, isGet, GraphQLProvider.newDataLoaderRegistry());
+            ExecutionResult result = graphQL.execute(executionInput);
+            if (isGet) {
+                sendCacheable(exchange, result);
+            } else {
+                responseWriter.stream(exchange, 200, result.toSpecification());
+            }
+        } finally {
+            permit.release();
+        }
+    }
+
+    private void sendCacheable(HttpExchange exchange, ExecutionResult result) throws IOException {
+        // En GET la réponse est cacheable : un client (ou un proxy) qui a déjà la même version reçoit un 304 sans corps.
+        // Le corps est sérialisé en mémoire car l'ETag doit être connu avant l'envoi des en-têtes.
+        byte[] bytes = responseWriter.serialize(result.toSpecification());
+        String etag = "\"" + HashUtils.sha256Hex(bytes).substring(0, 32) + "\"";
+        exchange.getResponseHeaders().add("ETag", etag);
+        exchange.getResponseHeaders().add("Cache-Control", "no-cache");
+        if (matchesEtag(exchange.getRequestHeaders().getFirst("If-None-Match"), etag)) {
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+
+        responseWriter.send(exchange, 200, bytes);
+    }
+
+    // Batch : [{query, variables}, ...] exécutés en parallèle, réponse sous forme de tableau dans le même ordre.
+    // Les opérations partagent le même DataLoaderRegistry, donc un client demandé par deux opérations
+    // n'est chargé qu'une fois et les clés des différentes opérations sont regroupées dans les mêmes requêtes.
+    // Un batch qui contient une mutation est exécuté dans l'ordre, avec un registry par opération :
+    // une lecture placée après la mutation ne doit pas recevoir de valeurs mises en cache avant elle.
+    private void handleBatch(HttpExchange exchange, String body) throws IOException {
+        List<Map<String, Object>> operations;
+        try {
+            operations = gson.fromJson(body, BATCH_TYPE);
+        } catch (JsonParseException e) {
+            responseWriter.send(exchange, 400, error("JSON invalide pour le batch : un tableau d'objets est attendu", "BAD_REQUEST"));
+            return;
+        }
+        if (operations == null || operations.isEmpty()) {
+            responseWriter.send(exchange, 400, error("Batch vide", "BAD_REQUEST"));
+            return;
+        }
+        if (operations.size() > maxBatchSize) {
+            responseWriter.send(exchange, 400, error("Batch limité à " + maxBatchSize + " opérations", "BATCH_TOO_LARGE"));
+            return;
+        }
+
+        List<GraphQLRequest> requests = new ArrayList<>(operations.size());
+        List<Object> resolved = new ArrayList<>(operations.size());
+        boolean mutation = false;
+        int complexity = 0;
+        for (Map<String, Object> operation : operations) {
+            GraphQLRequest request;
+            try {
+                request = operation != null ? GraphQLRequest.fromMap(operation) : null;
+            } catch (IllegalArgumentException e) {
+                requests.add(null);
+                resolved.add(error(e.getMessage(), "BAD_REQUEST"));
+                continue;
+            }
+            requests.add(request);
+            if (request == null) {
+                resolved.add(error("Opération vide", "BAD_REQUEST"));
+                continue;
+            }
+            try {
+                String query = resolveQuery(request);
+                DocumentCache.OperationInfo info = describe(request, query);
+                mutation |= info.isMutation();
+                complexity += info.complexity();
+                resolved.add(query);
+            } catch (InvalidRequestException e) {
+                resolved.add(e.body);
+            }
+        }
+
+        // Un batch occupe une seule place, prioritaire s'il contient au moins une mutation,
+        // et jugé sur la complexité cumulée de ses lectures
+        AdmissionController.Permit permit = admission.tryAcquire(admission.priorityOf(mutation, complexity));
+        if (permit == null) {
+            reject(exchange);
             return;
         }
+        try {
+            DataLoaderRegistry sharedRegistry = mutation ? null : GraphQLProvider.newDataLoaderRegistry();
+            List<CompletableFuture<Map<String, Object>>> results = new ArrayList<>(operations.size());
+            for (int i = 0; i < requests.size(); i++) {
+                if (resolved.get(i) instanceof String query) {
+                    DataLoaderRegistry dataLoaderRegistry = sharedRegistry != null ? sharedRegistry : GraphQLProvider.newDataLoaderRegistry();
+                    ExecutionInput executionInput = buildInput(requests.get(i), query, false, dataLoaderRegistry);
+                    CompletableFuture<Map<String, Object>> result = graphQL.executeAsync(executionInput)
+                            .thenApply(ExecutionResult::toSpecification);
+                    if (mutation) {
+                        // Attente de la fin de l'opération (et de ses écritures) avant de lancer la suivante
+                        result = CompletableFuture.completedFuture(await(result));
+                    }
+                    results.add(result);
+                } else {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> errorBody = (Map<String, Object>) resolved.get(i);
+                    results.add(CompletableFuture.completedFuture(errorBody));
+                }
+            }
+
+            List<Map<String, Object>> response = new ArrayList<>(results.size());
+            for (CompletableFuture<Map<String, Object>> result : results) {
+                response.add(await(result));
+            }
+            responseWriter.stream(exchange, 200, response);
+        } finally {
+            permit.release();
+        }
+    }
+
+    // Une opération en échec donne une entrée d'erreur, sans faire perdre la réponse des autres
+    private Map<String, Object> await(CompletableFuture<Map<String, Object>> result) {
+        try {
+            return result.join();
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            System.err.println("Opération du batch en échec : " + cause);
+            return error("Erreur interne lors de l'exécution de l'opération", "INTERNAL_SERVER_ERROR");
+        }
+    }
+
+    // Serveur saturé : réponse immédiate plutôt qu'une attente qui finirait en timeout côté client
+    private void reject(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().add("Retry-After", RETRY_AFTER_SECONDS);
+        responseWriter.send(exchange, 503, error("Serveur surchargé, réessayez plus tard", "OVERLOADED"));
+    }
+
+    private DocumentCache.OperationInfo describe(GraphQLRequest request, String query) {
+        return documentCache.describe(query, request.operationName(), request.variables(), graphQL.getGraphQLSchema());
+    }
+
+    // Texte de la requête, éventuellement récupéré depuis le cache des persisted queries
+    private String resolveQuery(GraphQLRequest request) throws InvalidRequestException {
+        String query = request.query();
+
+        // Automatic Persisted Queries : extensions.persistedQuery.sha256Hash
+        String hash = request.persistedQueryHash();
+        if (hash != null) {
+            if (query == null) {
+                query = persistedQueries.get(hash);
+                if (query == null) {
+                    throw new InvalidRequestException(200, error("PersistedQueryNotFound", "PERSISTED_QUERY_NOT_FOUND"));
+                }
+            } else if (!hash.equals(HashUtils.sha256Hex(query))) {
+                throw new InvalidRequestException(400, error("provided sha does not match query", "INVALID_PERSISTED_QUERY"));
+            } else {
+                persistedQueries.put(hash, query);
+            }
+        }
 
-        @SuppressWarnings("unchecked")
-        Map<String, Object> variables = (Map<String, Object>) request.get("variables");
+        if (query == null) {
+            throw new InvalidRequestException(400, error("Requête GraphQL manquante", "BAD_REQUEST"));
+        }
+        return query;
+    }
 
-        ExecutionInput.Builder executionInput = ExecutionInput.newExecutionInput().query(query);
-        if (variables != null) {
-            executionInput.variables(variables);
+    private ExecutionInput buildInput(GraphQLRequest request, String query, boolean readOnly, DataLoaderRegistry dataLoaderRegistry) {
+        ExecutionInput.Builder executionInput = ExecutionInput.newExecutionInput()
+                .query(query)
+                .operationName(request.operationName())
+                .dataLoaderRegistry(dataLoaderRegistry);
+        if (request.variables() != null) {
+            executionInput.variables(request.variables());
         }
+        if (readOnly) {
+            executionInput.graphQLContext(context -> context.put(DocumentCache.READ_ONLY, true));
+        }
+        return executionInput.build();
+    }
+
+    private boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Map<String, Object> error(String message, String code) {
+        return Map.of("errors", List.of(Map.of(
+                "message", message,
+                "extensions", Map.of("code", code)
+        )));
+    }
+
+    private static final class InvalidRequestException extends Exception {
 
-        ExecutionResult result = graphQL.execute(executionInput.build());
-        String response = gson.toJson(result.toSpecification());
+        private final int status;
+        private final Map<String, Object> body;
 
-        exchange.getResponseHeaders().add("Content-Type", "application/json");
-        byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
-        exchange.sendResponseHeaders(200, bytes.length);
-        try (OutputStream os = exchange.getResponseBody()) {
-            os.write(bytes);
+        private InvalidRequestException(int status, Map<String, Object> body) {
+            super(null, null, false, false);
+            this.status = status;
+            this.body = body;
         }
     }
-}
\ No newline at end of file
+}
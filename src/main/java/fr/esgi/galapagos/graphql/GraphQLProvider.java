@@ -1,21 +1,38 @@
 package fr.esgi.galapagos.graphql;
 
+import fr.esgi.galapagos.config.ServerConfig;
+import fr.esgi.galapagos.event.DomainEvents;
 import fr.esgi.galapagos.helper.*;
+import fr.esgi.galapagos.metrics.MetricsInstrumentation;
+import fr.esgi.galapagos.metrics.SlowQueryLog;
 import fr.esgi.galapagos.helper.BoxHelper.BoxInput;
 import fr.esgi.galapagos.helper.ClientHelper.ClientInput;
 import fr.esgi.galapagos.helper.SeaplaneHelper.SeaplaneInput;
+import fr.esgi.galapagos.model.enums.DeliveryStatus;
+import fr.esgi.galapagos.model.mongodb.Box;
+import fr.esgi.galapagos.model.mongodb.Client;
+import fr.esgi.galapagos.model.mongodb.Locker;
+import fr.esgi.galapagos.model.mongodb.Order;
+import fr.esgi.galapagos.model.mongodb.Product;
 import fr.esgi.galapagos.model.neo4j.Port;
 import fr.esgi.galapagos.service.*;
 import graphql.GraphQL;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.execution.instrumentation.ChainedInstrumentation;
 import graphql.schema.idl.RuntimeWiring;
 import graphql.schema.idl.SchemaGenerator;
 import graphql.schema.idl.SchemaParser;
 import graphql.schema.idl.TypeDefinitionRegistry;
+import org.bson.types.ObjectId;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderRegistry;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 
 public class GraphQLProvider {
 
@@ -27,6 +44,10 @@ public class GraphQLProvider {
     private static final OrderService orderService = new OrderService();
     private static final PortService portService = new PortService();
     private static final LockerService lockerService = new LockerService();
+    private static final StatsService statsService = new StatsService();
+    private static final DeliveryService deliveryService = new DeliveryService();
+
+    private static final DocumentCache documentCache = new DocumentCache(ServerConfig.getDocumentCacheSize());
 
     public static GraphQL createGraphQL() {
 
@@ -41,7 +62,10 @@ public class GraphQLProvider {
                 "graphql/product.graphqls",
                 "graphql/order.graphqls",
                 "graphql/port.graphqls",
-                "graphql/locker.graphqls"
+                "graphql/locker.graphqls",
+                "graphql/admin.graphqls",
+                "graphql/stats.graphqls",
+                "graphql/delivery.graphqls"
         );
 
         for (String schemaFile : schemaFiles) {
@@ -52,64 +76,220 @@ public class GraphQLProvider {
                 .type("Query", builder -> builder
                         .dataFetcher("version", env -> "1.0.0")
 
-                        .dataFetcher("islands", env -> {
+                        .dataFetcher("islands", AsyncFetchers.async(env -> {
                             Integer id = env.getArgument("id");
                             String name = env.getArgument("name");
                             return islandService.getIslands(id, name);
-                        })
+                        }))
 
-                        .dataFetcher("seaplanes", env -> {
+                        .dataFetcher("seaplanes", AsyncFetchers.async(env -> {
                             String id = env.getArgument("id");
-                            return seaplaneService.getSeaplanes(id);
-                        })
+                            return seaplaneService.getSeaplanes(id, env.getSelectionSet());
+                        }))
 
-                        .dataFetcher("products", env -> productService.getProducts(
+                        .dataFetcher("products", AsyncFetchers.async(env -> productService.getProducts(
                             env.getArgument("id"), 
-                            env.getArgument("name")))
+                            env.getArgument("name"))))
                         
-                        .dataFetcher("orders", env -> {
+                        .dataFetcher("orders", AsyncFetchers.async(env -> {
                             String statusStr = env.getArgument("status");
                             return orderService.getOrders(
                                     env.getArgument("id"),
                                     env.getArgument("clientId"),
-                                    statusStr != null ? fr.esgi.galapagos.model.enums.OrderStatus.valueOf(statusStr) : null
+                                    statusStr != null ? fr.esgi.galapagos.model.enums.OrderStatus.valueOf(statusStr) : null,
+                                    env.getArgument("from"),
+                                    env.getArgument("to"),
+                                    env.getSelectionSet()
                             );
-                        })
+                        }))
 
-                        .dataFetcher("ports", env -> {
+                        .dataFetcher("ports", AsyncFetchers.async(env -> {
                             Integer id = env.getArgument("id");
                             String name = env.getArgument("name");
                             String islandName = env.getArgument("islandName");
+                            return portService.getPorts(id, name, islandName);
+                        }))
 
-                            List<Port> ports = portService.getPorts(id, name, islandName);
-
-                            for (Port port : ports) {
-                                if (port != null && port.getId() != null) {
-                                    port.setLockers(lockerService.getLockers(port.getId(), null));
-                                }
-                            }
-
-                            return ports;
-                        })
-
-                        .dataFetcher("lockers", env -> {
+                        .dataFetcher("lockers", AsyncFetchers.async(env -> {
                             Integer portId = env.getArgument("portId");
                             String status = env.getArgument("status");
                             return lockerService.getLockers(portId, status);
-                        })
+                        }))
 
-                        .dataFetcher("boxes", env -> {
+                        .dataFetcher("boxes", AsyncFetchers.async(env -> {
                             String id = env.getArgument("id");
                             String orderId = env.getArgument("orderId");
                             String clientId = env.getArgument("clientId");
                             String status = env.getArgument("status");
-                            return boxService.getBoxes(id, orderId, clientId, status);
-                        })
+                            return boxService.getBoxes(id, orderId, clientId, status, env.getSelectionSet());
+                        }))
 
-                        .dataFetcher("clients", env -> {
+                        .dataFetcher("clients", AsyncFetchers.async(env -> {
                             String id = env.getArgument("id");
                             String name = env.getArgument("name");
-                            return clientService.getClients(id, name);
+                            return clientService.getClients(id, name, env.getSelectionSet());
+                        }))
+
+                        // Pagination par curseur : page bornée par GRAPHQL_MAX_PAGE_SIZE quelle que soit la taille de la collection
+                        .dataFetcher("ordersConnection", AsyncFetchers.async(env -> {
+                            String statusStr = env.getArgument("status");
+                            return orderService.getOrdersConnection(
+                                    env.getArgument("clientId"),
+                                    statusStr != null ? fr.esgi.galapagos.model.enums.OrderStatus.valueOf(statusStr) : null,
+                                    env.getArgument("from"),
+                                    env.getArgument("to"),
+                                    env.getArgument("first"),
+                                    env.getArgument("after"),
+                                    env.getSelectionSet()
+                            );
+                        }))
+
+                        .dataFetcher("boxesConnection", AsyncFetchers.async(env -> boxService.getBoxesConnection(
+                                env.getArgument("orderId"),
+                                env.getArgument("clientId"),
+                                env.getArgument("status"),
+                                env.getArgument("first"),
+                                env.getArgument("after"),
+                                env.getSelectionSet()
+                        )))
+
+                        .dataFetcher("clientsConnection", AsyncFetchers.async(env -> clientService.getClientsConnection(
+                                env.getArgument("name"),
+                                env.getArgument("first"),
+                                env.getArgument("after"),
+                                env.getSelectionSet()
+                        )))
+
+                        .dataFetcher("lockersConnection", AsyncFetchers.async(env -> lockerService.getLockersConnection(
+                                env.getArgument("portId"),
+                                env.getArgument("status"),
+                                env.getArgument("first"),
+                                env.getArgument("after")
+                        )))
+
+                        .dataFetcher("deliveries", AsyncFetchers.async(env -> {
+                            String statusStr = env.getArgument("status");
+                            return deliveryService.getDeliveriesConnection(
+                                    env.getArgument("orderId"),
+                                    env.getArgument("seaplaneId"),
+                                    statusStr != null ? DeliveryStatus.valueOf(statusStr) : null,
+                                    env.getArgument("from"),
+                                    env.getArgument("to"),
+                                    env.getArgument("first"),
+                                    env.getArgument("after"),
+                                    env.getSelectionSet()
+                            );
+                        }))
+
+                        .dataFetcher("searchProducts", AsyncFetchers.async(env -> productService.searchProducts(
+                                env.getArgument("query"),
+                                env.getArgument("first"),
+                                env.getArgument("after")
+                        )))
+
+                        .dataFetcher("searchClients", AsyncFetchers.async(env -> clientService.searchClients(
+                                env.getArgument("query"),
+                                env.getArgument("first"),
+                                env.getArgument("after"),
+                                env.getSelectionSet()
+                        )))
+
+                        .dataFetcher("orderStats", AsyncFetchers.async(env -> {
+                            String groupBy = env.getArgument("groupBy");
+                            return statsService.getOrderStats(
+                                    StatsService.OrderGroupBy.valueOf(groupBy),
+                                    env.getArgument("from"),
+                                    env.getArgument("to")
+                            );
+                        }))
+
+                        .dataFetcher("lockerOccupancy", AsyncFetchers.async(env ->
+                                statsService.getLockerOccupancy(env.getArgument("portId"))))
+
+                        .dataFetcher("productStockSummary", AsyncFetchers.async(env -> {
+                            Integer threshold = env.getArgument("lowStockThreshold");
+                            return statsService.getProductStockSummary(threshold != null ? threshold : 10);
+                        }))
+
+                        .dataFetcher("slowQueries", env -> {
+                            String store = env.getArgument("store");
+                            Integer limit = env.getArgument("limit");
+                            return SlowQueryLog.getEntries(store, limit != null ? limit : 50);
+                        })
+                )
+
+                // Chaque abonnement filtre le flux d'événements publié par les services selon ses arguments
+                .type("Subscription", builder -> builder
+                        .dataFetcher("seaplaneUpdated", env -> {
+                            String id = env.getArgument("id");
+                            return DomainEvents.SEAPLANE_UPDATED.subscribe(seaplane ->
+                                    id == null || id.equals(seaplane.getId()));
+                        })
+                        .dataFetcher("lockerStatusChanged", env -> {
+                            Integer portId = env.getArgument("portId");
+                            return DomainEvents.LOCKER_STATUS_CHANGED.subscribe(locker ->
+                                    portId == null || portId == locker.getPortId());
+                        })
+                        .dataFetcher("orderStatusChanged", env -> {
+                            String id = env.getArgument("id");
+                            String clientId = env.getArgument("clientId");
+                            // Filtres exécutés dans publish() : un champ absent ne doit pas lever d'exception
+                            return DomainEvents.ORDER_STATUS_CHANGED.subscribe(order ->
+                                    (id == null || (order.getId() != null && id.equals(order.getId().toHexString())))
+                                            && (clientId == null || (order.getClientId() != null
+                                            && clientId.equals(order.getClientId().toHexString()))));
+                        })
+                )
+
+                // Champs imbriqués résolus par DataLoader : uniquement chargés s'ils sont sélectionnés, et groupés par niveau
+                .type("Port", builder -> builder
+                        .dataFetcher("lockers", env -> {
+                            Port port = env.getSource();
+                            DataLoader<Integer, List<Locker>> loader = env.getDataLoader(DataLoaders.LOCKERS_BY_PORT);
+                            return port.getId() != null ? loader.load(port.getId()) : null;
+                        })
+                        .dataFetcher("nbLockers", env -> {
+                            Port port = env.getSource();
+                            DataLoader<Integer, Integer> loader = env.getDataLoader(DataLoaders.LOCKER_COUNT_BY_PORT);
+                            return port.getId() != null ? loader.load(port.getId()) : null;
+                        })
+                )
+
+                .type("Order", builder -> builder
+                        .dataFetcher("client", env -> {
+                            Order order = env.getSource();
+                            DataLoader<ObjectId, Client> loader = env.getDataLoader(DataLoaders.CLIENT_BY_ID);
+                            return order.getClientId() != null ? loader.load(order.getClientId()) : null;
+                        })
+                )
+
+                .type("OrderedProduct", builder -> builder
+                        .dataFetcher("product", env -> {
+                            Order.OrderedProduct orderedProduct = env.getSource();
+                            DataLoader<ObjectId, Product> loader = env.getDataLoader(DataLoaders.PRODUCT_BY_ID);
+                            return orderedProduct.getProductId() != null ? loader.load(orderedProduct.getProductId()) : null;
+                        })
+                )
+
+                .type("Box", builder -> builder
+                        .dataFetcher("order", env -> {
+                            Box box = env.getSource();
+                            DataLoader<ObjectId, Order> loader = env.getDataLoader(DataLoaders.ORDER_BY_ID);
+                            return box.getOrderId() != null ? loader.load(box.getOrderId()) : null;
+                        })
+                        .dataFetcher("client", env -> {
+                            Box box = env.getSource();
+                            DataLoader<ObjectId, Client> loader = env.getDataLoader(DataLoaders.CLIENT_BY_ID);
+                            return box.getClientId() != null ? loader.load(box.getClientId()) : null;
+                        })
+                )
+
+                .type("SlowQuery", builder -> builder
+                        .dataFetcher("parameters", env -> {
+                            SlowQueryLog.Entry entry = env.getSource();
+                            return entry.parameters().entrySet().stream()
+                                    .map(parameter -> Map.of("name", parameter.getKey(), "type", parameter.getValue()))
+                                    .toList();
                         })
                 )
 
@@ -155,6 +335,12 @@ public class GraphQLProvider {
                             return lockerService.addLocker(portId);
                         })
 
+                        .dataFetcher("addLockers", env -> {
+                            Integer portId = env.getArgument("portId");
+                            Integer count = env.getArgument("count");
+                            return lockerService.addLockers(portId, count);
+                        })
+
                         .dataFetcher("updateLockerStatus", env ->
                                 lockerService.updateLockerStatus(
                                         env.getArgument("id"),
@@ -163,6 +349,13 @@ public class GraphQLProvider {
                                 )
                         )
 
+                        .dataFetcher("reserveLocker", env -> {
+                            Integer portId = env.getArgument("portId");
+                            return lockerService.reserveLocker(portId, env.getArgument("orderId"));
+                        })
+
+                        .dataFetcher("releaseLocker", env -> lockerService.releaseLocker(env.getArgument("id")))
+
                         .dataFetcher("deleteLocker", env -> lockerService.deleteLocker(env.getArgument("id")))
 
                         .dataFetcher("createClient", env ->
@@ -220,15 +413,17 @@ public class GraphQLProvider {
                                         env.getArgument("content")
                                 )
                         )
+
+                        .dataFetcher("deleteBox", env ->
+                                boxService.deleteBox(env.getArgument("id"))
+                        )
+
                         .dataFetcher("createOrder", env -> {
                             var input = OrderHelper.extractOrderInput(env);
                             var products = input.products().stream()
                                 .map(p -> new fr.esgi.galapagos.model.mongodb.Order.OrderedProduct(new org.bson.types.ObjectId(p.productId()), p.quantity()))
                                 .collect(java.util.stream.Collectors.toList());
 
-                        .dataFetcher("deleteBox", env ->
-                                boxService.deleteBox(env.getArgument("id"))
-                        )
                             return orderService.createOrder(
                                     input.clientId(), input.priority(), input.deliveryPort(),
                                     products, input.boxCount(), input.totalWeightKg()
@@ -245,9 +440,24 @@ public class GraphQLProvider {
 
         return GraphQL
                 .newGraphQL(new SchemaGenerator().makeExecutableSchema(typeRegistry, wiring))
+                .preparsedDocumentProvider(documentCache)
+                .instrumentation(new ChainedInstrumentation(List.of(
+                        // Requêtes trop profondes ou trop coûteuses rejetées avant tout accès à Mongo / Neo4j
+                        new MaxQueryDepthInstrumentation(ServerConfig.getMaxQueryDepth()),
+                        new MaxQueryComplexityInstrumentation(ServerConfig.getMaxQueryComplexity(), new CostDirectiveCalculator()),
+                        new MetricsInstrumentation()
+                )))
                 .build();
     }
 
+    public static DataLoaderRegistry newDataLoaderRegistry() {
+        return DataLoaders.newRegistry(lockerService, clientService, orderService, productService);
+    }
+
+    public static DocumentCache getDocumentCache() {
+        return documentCache;
+    }
+
     private static String loadSchema(String filename) {
         try (InputStream stream = GraphQLProvider.class.getClassLoader().getResourceAsStream(filename)) {
             if (stream == null) {
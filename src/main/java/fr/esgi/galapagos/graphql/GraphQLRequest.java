@@ -0,0 +1,93 @@
+package fr.esgi.galapagos.graphql;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.Type;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+// Requête GraphQL reçue en HTTP, que ce soit dans le corps JSON d'un POST ou dans les paramètres d'un GET.
+// Une entrée mal formée (JSON illisible, variables qui ne sont pas un objet...) lève IllegalArgumentException,
+// que les handlers renvoient en 400.
+public record GraphQLRequest(
+        String query,
+        String operationName,
+        Map<String, Object> variables,
+        Map<String, Object> extensions,
+        // Automatic Persisted Queries : extensions.persistedQuery.sha256Hash, en minuscules
+        // (clé du PersistedQueryStore et comparaison avec HashUtils.sha256Hex)
+        String persistedQueryHash
+) {
+
+    static final Type MAP_TYPE = new TypeToken<Map<String, Object>>() {}.getType();
+
+    public static GraphQLRequest fromMap(Map<String, Object> map) {
+        Map<String, Object> extensions = object(map, "extensions");
+        return new GraphQLRequest(
+                map.get("query") instanceof String query ? query : null,
+                map.get("operationName") instanceof String operationName ? operationName : null,
+                object(map, "variables"),
+                extensions,
+                persistedQueryHash(extensions)
+        );
+    }
+
+    // Corps JSON d'un POST (un seul objet), null si le corps est vide
+    public static GraphQLRequest fromJson(String body, Gson gson) {
+        Map<String, Object> map = parseObject(body, "corps de la requête", gson);
+        return map != null ? fromMap(map) : null;
+    }
+
+    static Map<String, Object> parseObject(String json, String name, Gson gson) {
+        try {
+            return gson.fromJson(json, MAP_TYPE);
+        } catch (JsonParseException e) {
+            throw new IllegalArgumentException("JSON invalide pour " + name + " : un objet est attendu");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> object(Map<String, Object> map, String name) {
+        Object value = map.get(name);
+        if (value == null || value instanceof Map<?, ?>) {
+            return (Map<String, Object>) value;
+        }
+        throw new IllegalArgumentException("Le champ " + name + " doit être un objet JSON");
+    }
+
+    // GET ...?query=...&operationName=...&variables={...}&extensions={...}
+    public static GraphQLRequest fromQueryString(String rawQuery, Gson gson) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return null;
+        }
+
+        Map<String, Object> request = new HashMap<>();
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator <= 0) {
+                continue;
+            }
+            String key = URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8);
+            String value = URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8);
+
+            switch (key) {
+                case "query", "operationName" -> request.put(key, value);
+                case "variables", "extensions" -> request.put(key, parseObject(value, key, gson));
+                default -> { }
+            }
+        }
+        return fromMap(request);
+    }
+
+    private static String persistedQueryHash(Map<String, Object> extensions) {
+        if (extensions != null && extensions.get("persistedQuery") instanceof Map<?, ?> persistedQuery) {
+            Object hash = persistedQuery.get("sha256Hash");
+            return hash instanceof String value ? value.toLowerCase() : null;
+        }
+        return null;
+    }
+}
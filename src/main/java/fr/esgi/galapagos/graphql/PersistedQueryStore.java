@@ -0,0 +1,32 @@
+package fr.esgi.galapagos.graphql;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Automatic Persisted Queries : association hash SHA-256 -> texte de la requête.
+// Le client n'envoie que le hash, et le texte complet uniquement quand le serveur ne le connaît pas encore.
+public class PersistedQueryStore {
+
+    private final Map<String, String> queries;
+
+    public PersistedQueryStore(int maxSize) {
+        this.queries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public synchronized String get(String hash) {
+        return queries.get(hash);
+    }
+
+    public synchronized void put(String hash, String query) {
+        queries.put(hash, query);
+    }
+
+    public synchronized int size() {
+        return queries.size();
+    }
+}
@@ -0,0 +1,212 @@
+package fr.esgi.galapagos.graphql;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import fr.esgi.galapagos.config.ServerConfig;
+import fr.esgi.galapagos.server.JsonResponseWriter;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Subscriptions GraphQL servies en Server-Sent Events (compatible avec EventSource côté navigateur) :
+// GET /subscriptions?query=subscription{seaplaneUpdated{id status currentLocation{lat lon}}}
+// Chaque événement est envoyé sous la forme "event: next" / "data: {...}", la connexion reste ouverte
+// et occupe un thread de requête tant que le client écoute : leur nombre est limité par GRAPHQL_MAX_SUBSCRIPTIONS.
+public class SubscriptionHandler implements HttpHandler {
+
+    private static final long HEARTBEAT_SECONDS = 15;
+    private static final String RETRY_AFTER_SECONDS = "30";
+
+    private final GraphQL graphQL;
+    private final Gson gson = new Gson();
+    private final JsonResponseWriter responseWriter = new JsonResponseWriter(gson);
+    private final int maxSubscriptions = ServerConfig.getMaxSubscriptions();
+    private final AtomicInteger active = new AtomicInteger();
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sse-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SubscriptionHandler(GraphQL graphQL) {
+        this.graphQL = graphQL;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
+        exchange.getResponseHeaders().add("Access-Control-Allow-Methods", "GET, POST, OPTIONS");
+        exchange.getResponseHeaders().add("Access-Control-Allow-Headers", "Content-Type, Authorization");
+
+        if (exchange.getRequestMethod().equalsIgnoreCase("OPTIONS")) {
+            exchange.sendResponseHeaders(204, -1);
+            return;
+        }
+
+        boolean isGet = exchange.getRequestMethod().equalsIgnoreCase("GET");
+        if (!isGet && !exchange.getRequestMethod().equalsIgnoreCase("POST")) {
+            exchange.sendResponseHeaders(405, -1);
+            return;
+        }
+
+        GraphQLRequest request;
+        try {
+            request = isGet
+                    ? GraphQLRequest.fromQueryString(exchange.getRequestURI().getRawQuery(), gson)
+                    : GraphQLRequest.fromJson(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8), gson);
+        } catch (IllegalArgumentException e) {
+            sendBadRequest(exchange, e.getMessage());
+            return;
+        }
+
+        if (request == null || request.query() == null) {
+            sendBadRequest(exchange, "Requête GraphQL manquante");
+            return;
+        }
+
+        if (active.incrementAndGet() > maxSubscriptions) {
+            active.decrementAndGet();
+            exchange.getResponseHeaders().add("Retry-After", RETRY_AFTER_SECONDS);
+            responseWriter.send(exchange, 503, Map.of("errors", List.of(Map.of(
+                    "message", "Trop d'abonnements ouverts, réessayez plus tard",
+                    "extensions", Map.of("code", "OVERLOADED")))));
+            return;
+        }
+        try {
+            stream(exchange, request);
+        } finally {
+            active.decrementAndGet();
+        }
+    }
+
+    private void sendBadRequest(HttpExchange exchange, String message) throws IOException {
+        responseWriter.send(exchange, 400, Map.of("errors", List.of(Map.of(
+                "message", message,
+                "extensions", Map.of("code", "BAD_REQUEST")))));
+    }
+
+    private void stream(HttpExchange exchange, GraphQLRequest request) throws IOException {
+        ExecutionInput.Builder executionInput = ExecutionInput.newExecutionInput()
+                .query(request.query())
+                .operationName(request.operationName())
+                .dataLoaderRegistry(GraphQLProvider.newDataLoaderRegistry());
+        if (request.variables() != null) {
+            executionInput.variables(request.variables());
+        }
+
+        ExecutionResult result = graphQL.execute(executionInput.build());
+
+        // Erreur de validation, ou opération qui n'est pas une subscription
+        if (!result.getErrors().isEmpty() || !(result.getData() instanceof Publisher<?> publisher)) {
+            responseWriter.send(exchange, 400, result.toSpecification());
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Publisher<ExecutionResult> events = (Publisher<ExecutionResult>) publisher;
+
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().add("Cache-Control", "no-cache");
+        exchange.getResponseHeaders().add("X-Accel-Buffering", "no");
+        exchange.sendResponseHeaders(200, 0);
+
+        try (OutputStream os = exchange.getResponseBody()) {
+            EventStreamSubscriber subscriber = new EventStreamSubscriber(os);
+            ScheduledFuture<?> heartbeat = heartbeats.scheduleAtFixedRate(
+                    subscriber::heartbeat, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+            try {
+                events.subscribe(subscriber);
+                subscriber.awaitTermination();
+            } catch (InterruptedException e) {
+                subscriber.cancel();
+                Thread.currentThread().interrupt();
+            } finally {
+                heartbeat.cancel(false);
+            }
+        }
+    }
+
+    private final class EventStreamSubscriber implements Subscriber<ExecutionResult> {
+
+        private final OutputStream os;
+        private final CountDownLatch terminated = new CountDownLatch(1);
+        private volatile Subscription subscription;
+
+        private EventStreamSubscriber(OutputStream os) {
+            this.os = os;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(ExecutionResult event) {
+            if (write("event: next\ndata: " + gson.toJson(event.toSpecification()) + "\n\n")) {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            write("event: error\ndata: " + gson.toJson(Map.of("message", String.valueOf(throwable.getMessage()))) + "\n\n");
+            terminated.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            write("event: complete\ndata: \n\n");
+            terminated.countDown();
+        }
+
+        // Commentaire SSE ignoré par le client : détecte les connexions fermées même sans événement
+        private void heartbeat() {
+            write(": ping\n\n");
+        }
+
+        private synchronized boolean write(String chunk) {
+            if (terminated.getCount() == 0) {
+                return false;
+            }
+            try {
+                os.write(chunk.getBytes(StandardCharsets.UTF_8));
+                os.flush();
+                return true;
+            } catch (IOException e) {
+                // Client déconnecté : on se désabonne, ce qui libère le canal côté EventTopic
+                cancel();
+                return false;
+            }
+        }
+
+        private void cancel() {
+            Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+            terminated.countDown();
+        }
+
+        private void awaitTermination() throws InterruptedException {
+            terminated.await();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package fr.esgi.galapagos.helper;
+
+import com.mongodb.client.model.Filters;
+import fr.esgi.galapagos.config.DateBackfill;
+import fr.esgi.galapagos.config.MongoConnection;
+import org.bson.BsonType;
+import org.bson.conversions.Bson;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DateHelper {
+
+    // Fuseau des anciennes dates stockées en texte sans fuseau (LocalDateTime.now() du serveur qui les a écrites)
+    public static final ZoneId LEGACY_ZONE = ZoneId.systemDefault();
+
+    // Borne from / to d'un filtre ou date reçue en entrée : 2025-01-31, 2025-01-31T12:00:00 (UTC sans fuseau),
+    // 2025-01-31T12:00:00Z ou 2025-01-31T12:00:00+02:00. null si la valeur est absente.
+    public static Instant parseInstant(String name, String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            if (value.length() == 10) {
+                return LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant();
+            }
+            try {
+                return OffsetDateTime.parse(value).toInstant();
+            } catch (DateTimeParseException e) {
+                return LocalDateTime.parse(value).toInstant(ZoneOffset.UTC);
+            }
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Date invalide pour " + name + " : " + value + " (attendu : 2025-01-31, 2025-01-31T12:00:00 ou 2025-01-31T12:00:00Z)");
+        }
+    }
+
+    // Filtre from / to (to exclu) sur un champ date, null sans borne. Tant qu'il reste des dates en texte
+    // (DateBackfill pas terminé ou désactivé), elles sont comparées sous leur forme LocalDateTime.toString()
+    // dans LEGACY_ZONE : l'ordre lexicographique de ce format est l'ordre chronologique.
+    public static Bson range(String field, String from, String to) {
+        Instant start = parseInstant("from", from);
+        Instant end = parseInstant("to", to);
+        if (start == null && end == null) {
+            return null;
+        }
+        return range(field, start, end, hasLegacyDates());
+    }
+
+    static Bson range(String field, Instant start, Instant end, boolean legacy) {
+        List<Bson> dates = new ArrayList<>();
+        List<Bson> texts = new ArrayList<>();
+        texts.add(Filters.type(field, BsonType.STRING));
+        if (start != null) {
+            dates.add(Filters.gte(field, start));
+            texts.add(Filters.gte(field, toLegacy(start)));
+        }
+        if (end != null) {
+            dates.add(Filters.lt(field, end));
+            texts.add(Filters.lt(field, toLegacy(end)));
+        }
+        return legacy ? Filters.or(Filters.and(dates), Filters.and(texts)) : Filters.and(dates);
+    }
+
+    // Faux dès que order_date et departure_date ne contiennent plus que des BSON Date (vérification mise en cache)
+    public static boolean hasLegacyDates() {
+        return DateBackfill.hasLegacyRangeDates(MongoConnection.getDatabase());
+    }
+
+    static String toLegacy(Instant value) {
+        return LocalDateTime.ofInstant(value, LEGACY_ZONE).toString();
+    }
+
+    // Conversion d'une date encore stockée en texte (avant migration en BSON Date), null si illisible
+    public static Instant fromLegacy(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value).atZone(LEGACY_ZONE).toInstant();
+        } catch (DateTimeParseException e) {
+            try {
+                return OffsetDateTime.parse(value).toInstant();
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package fr.esgi.galapagos.helper;
+
+import com.mongodb.client.model.Filters;
+import fr.esgi.galapagos.config.ServerConfig;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+// Pagination par curseur des champs *Connection (spécification Relay, pagination avant uniquement : first / after).
+// Les services lisent pageSize + 1 documents après le curseur, triés sur une clé indexée (keyset) :
+// le document en trop indique seulement qu'il existe une page suivante.
+public class PaginationHelper {
+
+    public record Connection<T>(List<Edge<T>> edges, PageInfo pageInfo) {}
+
+    public record Edge<T>(T node, String cursor) {}
+
+    public record PageInfo(boolean hasNextPage, boolean hasPreviousPage, String startCursor, String endCursor) {}
+
+    // Position dans une page triée sur (champ date, _id) : _id départage les documents de même date
+    public record DateCursor(Instant date, ObjectId id) {}
+
+    public static int pageSize(Integer first) {
+        if (first == null) {
+            return Math.min(ServerConfig.getDefaultPageSize(), ServerConfig.getMaxPageSize());
+        }
+        if (first < 0) {
+            throw new IllegalArgumentException("L'argument first ne peut pas être négatif.");
+        }
+        return Math.min(first, ServerConfig.getMaxPageSize());
+    }
+
+    public static <T> Connection<T> connection(List<T> items, int pageSize, boolean hasPrevious, Function<T, String> cursorValue) {
+        return connection(items, pageSize, hasPrevious, Function.identity(), cursorValue);
+    }
+
+    // Variante où la clé du curseur n'est pas portée par le modèle (ex : score de pertinence d'une recherche)
+    public static <S, T> Connection<T> connection(List<S> items, int pageSize, boolean hasPrevious,
+                                                  Function<S, T> node, Function<S, String> cursorValue) {
+        List<Edge<T>> edges = items.stream()
+                .limit(pageSize)
+                .map(item -> new Edge<>(node.apply(item), encodeCursor(cursorValue.apply(item))))
+                .toList();
+
+        PageInfo pageInfo = new PageInfo(
+                items.size() > pageSize,
+                hasPrevious,
+                edges.isEmpty() ? null : edges.getFirst().cursor(),
+                edges.isEmpty() ? null : edges.getLast().cursor()
+        );
+        return new Connection<>(edges, pageInfo);
+    }
+
+    // Curseur opaque pour le client : la clé de tri encodée en base64
+    public static String encodeCursor(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String decodeCursor(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Curseur invalide : " + cursor);
+        }
+    }
+
+    public static ObjectId decodeObjectIdCursor(String cursor) {
+        String value = decodeCursor(cursor);
+        if (value == null) {
+            return null;
+        }
+        if (!ObjectId.isValid(value)) {
+            throw new IllegalArgumentException("Curseur invalide : " + cursor);
+        }
+        return new ObjectId(value);
+    }
+
+    // Valeur du curseur (date, _id) avant encodage : millisecondes epoch (précision d'une BSON Date) et _id
+    public static String dateCursorValue(Instant date, ObjectId id) {
+        return date.toEpochMilli() + ":" + id.toHexString();
+    }
+
+    // Un curseur (date, _id) contient le séparateur, jamais un curseur ObjectId
+    public static boolean isDateCursor(String cursor) {
+        String value = decodeCursor(cursor);
+        return value != null && value.indexOf(':') >= 0;
+    }
+
+    public static DateCursor decodeDateCursor(String cursor) {
+        String value = decodeCursor(cursor);
+        if (value == null) {
+            return null;
+        }
+        int separator = value.indexOf(':');
+        if (separator < 0 || !ObjectId.isValid(value.substring(separator + 1))) {
+            throw new IllegalArgumentException("Curseur invalide : " + cursor);
+        }
+        try {
+            return new DateCursor(Instant.ofEpochMilli(Long.parseLong(value.substring(0, separator))),
+                    new ObjectId(value.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Curseur invalide : " + cursor);
+        }
+    }
+
+    // Documents après le curseur dans l'ordre (field, _id), à trier sur les mêmes clés (index (field, _id))
+    public static Bson after(String field, DateCursor cursor) {
+        return Filters.or(
+                Filters.gt(field, cursor.date()),
+                Filters.and(Filters.eq(field, cursor.date()), Filters.gt("_id", cursor.id()))
+        );
+    }
+}
@@ -0,0 +1,49 @@
+package fr.esgi.galapagos.helper;
+
+import com.mongodb.client.model.Projections;
+import graphql.schema.DataFetchingFieldSelectionSet;
+import graphql.schema.SelectedField;
+import org.bson.conversions.Bson;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class ProjectionHelper {
+
+    // Projection Mongo limitée aux champs demandés dans la requête GraphQL.
+    // fieldMapping associe chaque champ GraphQL aux champs du document dont il dépend
+    // (ex : Order.client a besoin de client_id pour le DataLoader). Sans sélection, le document complet est renvoyé.
+    public static Bson mongoProjection(DataFetchingFieldSelectionSet selectionSet, Map<String, List<String>> fieldMapping) {
+        return selectionSet == null ? null : include(selectionSet.getImmediateFields(), fieldMapping);
+    }
+
+    // Même projection pour un champ *Connection : les champs du type sont sélectionnés sous edges { node { ... } }
+    public static Bson nodeProjection(DataFetchingFieldSelectionSet selectionSet, Map<String, List<String>> fieldMapping) {
+        return selectionSet == null ? null : include(selectionSet.getFields("edges/node/*"), fieldMapping);
+    }
+
+    // Page triée sur (sortField, _id) : sortField est lu même s'il n'est pas demandé, il sert à construire le curseur
+    public static Bson nodeProjection(DataFetchingFieldSelectionSet selectionSet, Map<String, List<String>> fieldMapping,
+                                      String sortField) {
+        return selectionSet == null ? null : include(selectionSet.getFields("edges/node/*"), fieldMapping, sortField);
+    }
+
+    public static boolean isSelected(DataFetchingFieldSelectionSet selectionSet, String field) {
+        return selectionSet == null || selectionSet.contains(field);
+    }
+
+    private static Bson include(List<SelectedField> fields, Map<String, List<String>> fieldMapping, String... always) {
+        Set<String> documentFields = new LinkedHashSet<>();
+        documentFields.add("_id");
+        documentFields.addAll(List.of(always));
+        for (SelectedField field : fields) {
+            List<String> mapped = fieldMapping.get(field.getName());
+            if (mapped != null) {
+                documentFields.addAll(mapped);
+            }
+        }
+        return Projections.include(List.copyOf(documentFields));
+    }
+}
@@ -0,0 +1,71 @@
+package fr.esgi.galapagos.helper;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Field;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import fr.esgi.galapagos.helper.PaginationHelper.Connection;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Recherche plein texte ($text, index texte déclaré dans MongoIndexes) triée par pertinence puis par _id.
+// La pagination reprend après le couple (score, _id) du dernier résultat, encodé dans le curseur.
+public class SearchHelper {
+
+    private static final int MAX_SEARCH_LENGTH = 200;
+
+    public static <T> Connection<T> search(MongoCollection<Document> collection, Class<T> type, String text,
+                                           Bson projection, Integer first, String after) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Le texte recherché ne peut pas être vide.");
+        }
+        if (text.length() > MAX_SEARCH_LENGTH) {
+            throw new IllegalArgumentException("Le texte recherché ne peut pas dépasser " + MAX_SEARCH_LENGTH + " caractères.");
+        }
+        int pageSize = PaginationHelper.pageSize(first);
+        String cursor = PaginationHelper.decodeCursor(after);
+
+        List<Bson> pipeline = new ArrayList<>();
+        pipeline.add(Aggregates.match(Filters.text(text)));
+        pipeline.add(Aggregates.addFields(new Field<>("score", new Document("$meta", "textScore"))));
+        if (cursor != null) {
+            int separator = cursor.lastIndexOf(':');
+            double score;
+            ObjectId id;
+            try {
+                score = Double.parseDouble(cursor.substring(0, separator));
+                id = new ObjectId(cursor.substring(separator + 1));
+            } catch (IllegalArgumentException | StringIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Curseur invalide : " + after);
+            }
+            pipeline.add(Aggregates.match(Filters.or(
+                    Filters.lt("score", score),
+                    Filters.and(Filters.eq("score", score), Filters.gt("_id", id))
+            )));
+        }
+        pipeline.add(Aggregates.sort(Sorts.orderBy(Sorts.descending("score"), Sorts.ascending("_id"))));
+        pipeline.add(Aggregates.limit(pageSize + 1));
+        if (projection != null) {
+            pipeline.add(Aggregates.project(Projections.fields(projection, Projections.include("score"))));
+        }
+
+        // Résultats gardés en octets BSON : chaque document n'est décodé qu'une fois, par le codec du modèle
+        // (qui ignore le champ score), score et _id étant lus directement dans les octets
+        List<RawBsonDocument> result = collection.aggregate(pipeline, RawBsonDocument.class).into(new ArrayList<>());
+
+        Codec<T> codec = collection.getCodecRegistry().get(type);
+        DecoderContext context = DecoderContext.builder().build();
+        return PaginationHelper.connection(result, pageSize, cursor != null,
+                document -> codec.decode(document.asBsonReader(), context),
+                document -> document.getNumber("score").doubleValue() + ":" + document.getObjectId("_id").getValue().toHexString());
+    }
+}
@@ -0,0 +1,23 @@
+package fr.esgi.galapagos.metrics;
+
+import java.util.List;
+
+// Métrique exportable au format texte Prometheus
+interface Collector {
+
+    void writeTo(StringBuilder out);
+
+    static String formatLabels(String[] labelNames, List<String> labelValues) {
+        StringBuilder labels = new StringBuilder();
+        for (int i = 0; i < labelNames.length; i++) {
+            if (i > 0) {
+                labels.append(',');
+            }
+            String value = labelValues.get(i) == null ? "" : labelValues.get(i);
+            labels.append(labelNames[i]).append("=\"")
+                    .append(value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+                    .append('"');
+        }
+        return labels.toString();
+    }
+}
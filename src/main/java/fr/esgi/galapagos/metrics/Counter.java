@@ -0,0 +1,40 @@
+package fr.esgi.galapagos.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Compteur croissant au format Prometheus, une série par combinaison de valeurs de labels
+public class Counter implements Collector {
+
+    private final String name;
+    private final String help;
+    private final String[] labelNames;
+    private final Map<List<String>, LongAdder> series = new ConcurrentHashMap<>();
+
+    public Counter(String name, String help, String... labelNames) {
+        this.name = name;
+        this.help = help;
+        this.labelNames = labelNames;
+    }
+
+    public void increment(String... labelValues) {
+        add(1, labelValues);
+    }
+
+    public void add(long amount, String... labelValues) {
+        if (labelValues.length != labelNames.length) {
+            throw new IllegalArgumentException("Nombre de labels invalide pour " + name);
+        }
+        series.computeIfAbsent(List.of(labelValues), k -> new LongAdder()).add(amount);
+    }
+
+    @Override
+    public void writeTo(StringBuilder out) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        series.forEach((labelValues, value) -> out.append(name).append('{')
+                .append(Collector.formatLabels(labelNames, labelValues)).append("} ").append(value.sum()).append('\n'));
+    }
+}
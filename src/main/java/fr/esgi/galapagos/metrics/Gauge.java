@@ -0,0 +1,41 @@
+package fr.esgi.galapagos.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Valeurs lues au moment du scraping (état d'un pool, compteurs tenus par un driver...).
+// Le fournisseur renvoie une valeur par combinaison de labels ; type "gauge" ou "counter".
+public class Gauge implements Collector {
+
+    private final String name;
+    private final String help;
+    private final String type;
+    private final String[] labelNames;
+    private final Supplier<Map<List<String>, ? extends Number>> values;
+
+    private Gauge(String name, String help, String type, Supplier<Map<List<String>, ? extends Number>> values, String... labelNames) {
+        this.name = name;
+        this.help = help;
+        this.type = type;
+        this.values = values;
+        this.labelNames = labelNames;
+    }
+
+    public static Gauge gauge(String name, String help, Supplier<Map<List<String>, ? extends Number>> values, String... labelNames) {
+        return new Gauge(name, help, "gauge", values, labelNames);
+    }
+
+    // Compteur tenu ailleurs (ex : par le driver Neo4j), seulement relu ici
+    public static Gauge counter(String name, String help, Supplier<Map<List<String>, ? extends Number>> values, String... labelNames) {
+        return new Gauge(name, help, "counter", values, labelNames);
+    }
+
+    @Override
+    public void writeTo(StringBuilder out) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        values.get().forEach((labelValues, value) -> out.append(name).append('{')
+                .append(Collector.formatLabels(labelNames, labelValues)).append("} ").append(value).append('\n'));
+    }
+}
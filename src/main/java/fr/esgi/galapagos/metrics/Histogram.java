@@ -0,0 +1,77 @@
+package fr.esgi.galapagos.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+// Histogramme de durées (en secondes) au format Prometheus, une série par combinaison de valeurs de labels
+public class Histogram implements Collector {
+
+    private static final double[] BUCKETS = {0.001, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+    private final String name;
+    private final String help;
+    private final String[] labelNames;
+    private final Map<List<String>, Series> series = new ConcurrentHashMap<>();
+
+    public Histogram(String name, String help, String... labelNames) {
+        this.name = name;
+        this.help = help;
+        this.labelNames = labelNames;
+    }
+
+    public void observe(long nanos, String... labelValues) {
+        if (labelValues.length != labelNames.length) {
+            throw new IllegalArgumentException("Nombre de labels invalide pour " + name);
+        }
+        series.computeIfAbsent(List.of(labelValues), k -> new Series()).observe(nanos / 1_000_000_000.0);
+    }
+
+    @Override
+    public void writeTo(StringBuilder out) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" histogram\n");
+
+        series.forEach((labelValues, values) -> {
+            String labels = Collector.formatLabels(labelNames, labelValues);
+            long cumulative = 0;
+            for (int i = 0; i < BUCKETS.length; i++) {
+                cumulative += values.buckets[i].sum();
+                out.append(name).append("_bucket{").append(labels).append(labels.isEmpty() ? "" : ",")
+                        .append("le=\"").append(BUCKETS[i]).append("\"} ").append(cumulative).append('\n');
+            }
+            long count = values.count.sum();
+            out.append(name).append("_bucket{").append(labels).append(labels.isEmpty() ? "" : ",")
+                    .append("le=\"+Inf\"} ").append(count).append('\n');
+            out.append(name).append("_sum{").append(labels).append("} ").append(values.sum.sum()).append('\n');
+            out.append(name).append("_count{").append(labels).append("} ").append(count).append('\n');
+        });
+    }
+
+    private static final class Series {
+
+        // Compteurs non cumulés : le cumul "le" est calculé à l'export
+        private final LongAdder[] buckets = new LongAdder[BUCKETS.length];
+        private final LongAdder count = new LongAdder();
+        private final DoubleAdder sum = new DoubleAdder();
+
+        private Series() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        private void observe(double seconds) {
+            for (int i = 0; i < BUCKETS.length; i++) {
+                if (seconds <= BUCKETS[i]) {
+                    buckets[i].increment();
+                    break;
+                }
+            }
+            count.increment();
+            sum.add(seconds);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package fr.esgi.galapagos.metrics;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Métriques de l'application, exposées sur /metrics.
+// Permet de savoir où part le temps d'une requête : HTTP total, exécution GraphQL, champ par champ,
+// sérialisation JSON, commandes Mongo et transactions Neo4j, attente des pools de connexions.
+public class Metrics {
+
+    public static final Histogram HTTP_REQUESTS = new Histogram("galapagos_http_request_seconds",
+            "Durée totale des requêtes HTTP", "path", "method", "status");
+    public static final Histogram GRAPHQL_OPERATIONS = new Histogram("galapagos_graphql_operation_seconds",
+            "Durée d'exécution des opérations GraphQL (parsing, validation et résolution)", "operation_type", "outcome");
+    public static final Histogram GRAPHQL_FIELDS = new Histogram("galapagos_graphql_field_seconds",
+            "Durée de résolution des champs GraphQL non triviaux", "type", "field", "outcome");
+    public static final Histogram JSON_SERIALIZATION = new Histogram("galapagos_json_serialization_seconds",
+            "Durée de sérialisation JSON des réponses (écriture réseau comprise en mode stream)", "mode");
+    public static final Histogram MONGO_COMMANDS = new Histogram("galapagos_mongo_command_seconds",
+            "Durée des commandes MongoDB", "command", "outcome");
+    public static final Histogram NEO4J_TRANSACTIONS = new Histogram("galapagos_neo4j_transaction_seconds",
+            "Durée des transactions Neo4j", "query", "mode", "outcome");
+
+    public static final Histogram MONGO_POOL_CHECKOUT = new Histogram("galapagos_mongo_pool_checkout_seconds",
+            "Attente d'une connexion du pool MongoDB", "server", "outcome");
+    public static final Counter MONGO_POOL_EXHAUSTED = new Counter("galapagos_mongo_pool_exhausted_total",
+            "Connexions MongoDB non obtenues dans le délai d'attente (pool épuisé)", "server");
+
+    public static final Counter EXPORTED_DOCUMENTS = new Counter("galapagos_export_documents_total",
+            "Documents écrits par /export", "collection", "format");
+
+    public static final Counter IMPORTED_DOCUMENTS = new Counter("galapagos_import_documents_total",
+            "Lignes traitées par /import", "collection", "outcome");
+
+    private static final List<Collector> ALL = new CopyOnWriteArrayList<>(List.of(
+            HTTP_REQUESTS, GRAPHQL_OPERATIONS, GRAPHQL_FIELDS, JSON_SERIALIZATION, MONGO_COMMANDS, NEO4J_TRANSACTIONS,
+            MONGO_POOL_CHECKOUT, MONGO_POOL_EXHAUSTED, EXPORTED_DOCUMENTS, IMPORTED_DOCUMENTS
+    ));
+
+    private Metrics() {
+    }
+
+    // Métriques lues à la demande, enregistrées à la création des connexions
+    static void register(Collector collector) {
+        ALL.add(collector);
+    }
+
+    // Format texte Prometheus (version 0.0.4)
+    public static String scrape() {
+        StringBuilder out = new StringBuilder();
+        for (Collector collector : ALL) {
+            collector.writeTo(out);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,70 @@
+package fr.esgi.galapagos.metrics;
+
+import graphql.ExecutionResult;
+import graphql.execution.instrumentation.FieldFetchingInstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.language.OperationDefinition;
+import graphql.schema.GraphQLNamedType;
+
+// Mesure la durée de chaque opération GraphQL et de chaque champ résolu par un data fetcher.
+// Les champs triviaux (simple lecture de propriété sur l'objet parent) sont ignorés pour ne pas fausser les mesures.
+// Les opérations sont étiquetées par type (query / mutation / subscription) et non par operationName :
+// ce nom est choisi par le client, et chaque valeur distincte créerait une série conservée indéfiniment.
+public class MetricsInstrumentation extends SimplePerformantInstrumentation {
+
+    // Type connu une fois le document analysé, "invalid" si l'exécution s'arrête avant (syntaxe, validation)
+    private static final class OperationState implements InstrumentationState {
+        private volatile String type = "invalid";
+    }
+
+    @Override
+    public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+        return new OperationState();
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecution(InstrumentationExecutionParameters parameters, InstrumentationState state) {
+        long start = System.nanoTime();
+        return SimpleInstrumentationContext.whenCompleted((result, throwable) -> {
+            boolean failed = throwable != null || (result != null && !result.getErrors().isEmpty());
+            Metrics.GRAPHQL_OPERATIONS.observe(System.nanoTime() - start, ((OperationState) state).type, failed ? "error" : "success");
+        });
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters, InstrumentationState state) {
+        OperationDefinition operation = parameters.getExecutionContext().getOperationDefinition();
+        ((OperationState) state).type = operation.getOperation().name().toLowerCase();
+        return SimpleInstrumentationContext.noOp();
+    }
+
+    @Override
+    public FieldFetchingInstrumentationContext beginFieldFetching(InstrumentationFieldFetchParameters parameters, InstrumentationState state) {
+        if (parameters.isTrivialDataFetcher()) {
+            return FieldFetchingInstrumentationContext.NOOP;
+        }
+
+        long start = System.nanoTime();
+        String type = ((GraphQLNamedType) parameters.getEnvironment().getParentType()).getName();
+        String field = parameters.getEnvironment().getFieldDefinition().getName();
+
+        // Pour les fetchers asynchrones et les DataLoaders, onCompleted est appelé à la fin du CompletableFuture
+        return new FieldFetchingInstrumentationContext() {
+            @Override
+            public void onDispatched() {
+            }
+
+            @Override
+            public void onCompleted(Object result, Throwable throwable) {
+                Metrics.GRAPHQL_FIELDS.observe(System.nanoTime() - start, type, field, throwable != null ? "error" : "success");
+            }
+        };
+    }
+}
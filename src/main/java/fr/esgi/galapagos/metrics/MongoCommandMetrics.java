@@ -0,0 +1,21 @@
+package fr.esgi.galapagos.metrics;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+
+import java.util.concurrent.TimeUnit;
+
+// Listener du driver Mongo : durée de chaque commande (find, aggregate, insert...) mesurée par le driver lui-même
+public class MongoCommandMetrics implements CommandListener {
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        Metrics.MONGO_COMMANDS.observe(event.getElapsedTime(TimeUnit.NANOSECONDS), event.getCommandName(), "success");
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        Metrics.MONGO_COMMANDS.observe(event.getElapsedTime(TimeUnit.NANOSECONDS), event.getCommandName(), "error");
+    }
+}
@@ -0,0 +1,109 @@
+package fr.esgi.galapagos.metrics;
+
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolClosedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+// Listener des pools de connexions MongoDB (un pool par serveur du cluster) :
+// temps d'attente d'une connexion, échecs (TIMEOUT = pool épuisé), connexions ouvertes / utilisées / attendues.
+public class MongoPoolMetrics implements ConnectionPoolListener {
+
+    private static final Map<String, PoolState> POOLS = new ConcurrentHashMap<>();
+
+    static {
+        Metrics.register(Gauge.gauge("galapagos_mongo_pool_max_size", "Taille maximale du pool MongoDB",
+                () -> read(state -> state.maxSize), "server"));
+        Metrics.register(Gauge.gauge("galapagos_mongo_pool_open_connections", "Connexions MongoDB ouvertes",
+                () -> read(state -> state.open.get()), "server"));
+        Metrics.register(Gauge.gauge("galapagos_mongo_pool_in_use_connections", "Connexions MongoDB utilisées par une commande",
+                () -> read(state -> state.inUse.get()), "server"));
+        Metrics.register(Gauge.gauge("galapagos_mongo_pool_waiting", "Demandes en attente d'une connexion MongoDB",
+                () -> read(state -> state.waiting.get()), "server"));
+    }
+
+    private static final class PoolState {
+        private volatile int maxSize;
+        private final AtomicInteger open = new AtomicInteger();
+        private final AtomicInteger inUse = new AtomicInteger();
+        private final AtomicInteger waiting = new AtomicInteger();
+    }
+
+    @Override
+    public void connectionPoolCreated(ConnectionPoolCreatedEvent event) {
+        state(event.getServerId()).maxSize = event.getSettings().getMaxSize();
+    }
+
+    @Override
+    public void connectionPoolClosed(ConnectionPoolClosedEvent event) {
+        POOLS.remove(server(event.getServerId()));
+    }
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+        state(event.getServerId()).waiting.incrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        ServerId serverId = event.getConnectionId().getServerId();
+        PoolState state = state(serverId);
+        state.waiting.decrementAndGet();
+        state.inUse.incrementAndGet();
+        Metrics.MONGO_POOL_CHECKOUT.observe(event.getElapsedTime(TimeUnit.NANOSECONDS), server(serverId), "success");
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        String server = server(event.getServerId());
+        state(event.getServerId()).waiting.decrementAndGet();
+        String reason = event.getReason().name().toLowerCase();
+        Metrics.MONGO_POOL_CHECKOUT.observe(event.getElapsedTime(TimeUnit.NANOSECONDS), server, reason);
+        if (event.getReason() == ConnectionCheckOutFailedEvent.Reason.TIMEOUT) {
+            Metrics.MONGO_POOL_EXHAUSTED.increment(server);
+        }
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        state(event.getConnectionId().getServerId()).inUse.decrementAndGet();
+    }
+
+    @Override
+    public void connectionCreated(ConnectionCreatedEvent event) {
+        state(event.getConnectionId().getServerId()).open.incrementAndGet();
+    }
+
+    @Override
+    public void connectionClosed(ConnectionClosedEvent event) {
+        state(event.getConnectionId().getServerId()).open.decrementAndGet();
+    }
+
+    private static PoolState state(ServerId serverId) {
+        return POOLS.computeIfAbsent(server(serverId), k -> new PoolState());
+    }
+
+    private static String server(ServerId serverId) {
+        return serverId.getAddress().toString();
+    }
+
+    private static Map<List<String>, Integer> read(Function<PoolState, Integer> value) {
+        Map<List<String>, Integer> values = new LinkedHashMap<>();
+        POOLS.forEach((server, state) -> values.put(List.of(server), value.apply(state)));
+        return values;
+    }
+}
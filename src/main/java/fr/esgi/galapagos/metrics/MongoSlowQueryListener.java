@@ -0,0 +1,176 @@
+package fr.esgi.galapagos.metrics;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Alimente le journal des requêtes lentes avec les commandes Mongo.
+// Le document envoyé par le driver n'est plus lisible une fois la réponse reçue : au démarrage, seule une copie
+// bornée des champs qui décrivent la requête est gardée (premier élément d'un lot, jamais les documents insérés).
+// La normalisation (valeurs remplacées par ?, seuls leurs types sont gardés) n'a lieu que pour une commande lente.
+public class MongoSlowQueryListener implements CommandListener {
+
+    private static final Set<String> LOGGED_COMMANDS = Set.of(
+            "find", "aggregate", "count", "distinct", "update", "delete", "insert", "findAndModify"
+    );
+    // Champs qui décrivent la forme de la requête, dans l'ordre d'affichage
+    private static final List<String> SHAPE_FIELDS = List.of(
+            "filter", "query", "key", "pipeline", "sort", "projection", "fields", "update", "hint", "limit", "skip",
+            "updates", "deletes"
+    );
+    // Lots update / delete : un élément suffit à décrire la forme, les autres sont seulement comptés
+    private static final Set<String> BATCH_FIELDS = Set.of("updates", "deletes");
+
+    private final Map<Integer, PendingCommand> pending = new ConcurrentHashMap<>();
+
+    // batchSize : nombre d'éléments du lot (documents insérés, updates, deletes), -1 hors lot
+    private record PendingCommand(String name, String collection, BsonDocument shape, int batchSize) {}
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (!SlowQueryLog.isEnabled() || !LOGGED_COMMANDS.contains(event.getCommandName())) {
+            return;
+        }
+        pending.put(event.getRequestId(), capture(event.getCommandName(), event.getCommand()));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        PendingCommand command = pending.remove(event.getRequestId());
+        long nanos = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        if (command != null && SlowQueryLog.isSlow(nanos)) {
+            record(command, countRows(event.getResponse()), nanos);
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        PendingCommand command = pending.remove(event.getRequestId());
+        long nanos = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        if (command != null && SlowQueryLog.isSlow(nanos)) {
+            record(command, 0, nanos);
+        }
+    }
+
+    // Lecture champ par champ : les documents d'un insert ne sont ni copiés ni parcourus
+    private PendingCommand capture(String commandName, BsonDocument command) {
+        BsonValue collection = command.get(commandName);
+        BsonDocument shape = new BsonDocument();
+        int batchSize = -1;
+        for (String field : SHAPE_FIELDS) {
+            BsonValue value = command.get(field);
+            if (value == null) {
+                continue;
+            }
+            if (BATCH_FIELDS.contains(field) && value.isArray()) {
+                BsonArray batch = value.asArray();
+                batchSize = batch.size();
+                value = batch.isEmpty() ? new BsonArray() : new BsonArray(List.of(copy(batch.get(0))));
+            }
+            shape.put(field, copy(value));
+        }
+        BsonValue documents = command.get("documents");
+        if (documents != null && documents.isArray()) {
+            batchSize = documents.asArray().size();
+        }
+        return new PendingCommand(commandName,
+                collection != null && collection.isString() ? collection.asString().getValue() : null, shape, batchSize);
+    }
+
+    // Copie indépendante du tampon du driver, libéré après l'envoi de la commande
+    private BsonValue copy(BsonValue value) {
+        if (value.isDocument()) {
+            return value.asDocument().clone();
+        }
+        if (value.isArray()) {
+            return value.asArray().clone();
+        }
+        return value;
+    }
+
+    private void record(PendingCommand command, long rows, long nanos) {
+        Map<String, String> parameters = new LinkedHashMap<>();
+        StringBuilder query = new StringBuilder("{").append(command.name()).append(": ");
+        // Nom de la collection, conservé tel quel
+        query.append(command.collection() != null ? "\"" + command.collection() + "\"" : "?");
+        if (command.name().equals("insert")) {
+            query.append(", documents: [").append(command.batchSize()).append(" documents]");
+        }
+        for (Map.Entry<String, BsonValue> field : command.shape().entrySet()) {
+            query.append(", ").append(field.getKey()).append(": ");
+            normalizeValue(field.getValue(), field.getKey(), query, parameters);
+            if (BATCH_FIELDS.contains(field.getKey()) && command.batchSize() > 1) {
+                query.append(" (x").append(command.batchSize()).append(')');
+            }
+        }
+        query.append('}');
+        SlowQueryLog.record("mongodb", query.toString(), parameters, rows, nanos);
+    }
+
+    private void normalizeValue(BsonValue value, String path, StringBuilder out, Map<String, String> parameters) {
+        if (value.isDocument()) {
+            out.append('{');
+            boolean first = true;
+            for (Map.Entry<String, BsonValue> field : value.asDocument().entrySet()) {
+                if (!first) {
+                    out.append(", ");
+                }
+                first = false;
+                out.append(field.getKey()).append(": ");
+                normalizeValue(field.getValue(), path + "." + field.getKey(), out, parameters);
+            }
+            out.append('}');
+        } else if (value.isArray() && containsDocuments(value.asArray())) {
+            // Pipeline d'agrégation, $and / $or... : chaque élément garde sa structure
+            out.append('[');
+            BsonArray array = value.asArray();
+            for (int i = 0; i < array.size(); i++) {
+                if (i > 0) {
+                    out.append(", ");
+                }
+                normalizeValue(array.get(i), path + "[" + i + "]", out, parameters);
+            }
+            out.append(']');
+        } else if (value.isArray()) {
+            // Liste de valeurs ($in...) : une seule forme quelle que soit la taille
+            out.append("[?]");
+            parameters.put(path, "array[" + value.asArray().size() + "]");
+        } else {
+            out.append('?');
+            parameters.put(path, value.getBsonType().name().toLowerCase());
+        }
+    }
+
+    private boolean containsDocuments(BsonArray array) {
+        return !array.isEmpty() && array.get(0).isDocument();
+    }
+
+    private long countRows(BsonDocument response) {
+        if (response.isDocument("cursor")) {
+            BsonDocument cursor = response.getDocument("cursor");
+            // Premier lot seulement : les lots suivants arrivent par getMore
+            return cursor.isArray("firstBatch") ? cursor.getArray("firstBatch").size() : 0;
+        }
+        if (response.isNumber("n")) {
+            return response.getNumber("n").longValue();
+        }
+        if (response.isArray("values")) {
+            return response.getArray("values").size();
+        }
+        if (response.containsKey("value")) {
+            return response.get("value").isNull() ? 0 : 1;
+        }
+        return 0;
+    }
+}
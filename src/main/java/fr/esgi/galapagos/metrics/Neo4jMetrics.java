@@ -0,0 +1,188 @@
+package fr.esgi.galapagos.metrics;
+
+import org.neo4j.driver.Query;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Result;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.TransactionCallback;
+import org.neo4j.driver.TransactionContext;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.summary.ResultSummary;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Équivalents chronométrés de session.executeRead / executeWrite.
+// Le nom de requête sert de label : utiliser un nom fixe (ex : "seaplanes.get"), jamais une valeur issue de la requête.
+// Quand le journal des requêtes lentes est actif, chaque tx.run est aussi enregistré (texte Cypher généré,
+// types des paramètres, nombre de lignes lues et durée côté serveur). Pendant la transaction seuls les arguments
+// bruts sont conservés : le texte et les paramètres ne sont normalisés que si la requête dépasse le seuil.
+public class Neo4jMetrics {
+
+    private Neo4jMetrics() {
+    }
+
+    public static <T> T executeRead(Session session, String query, TransactionCallback<T> callback) {
+        return timed(query, "read", recorder -> session.executeRead(tx -> recorder.execute(tx, callback)));
+    }
+
+    public static <T> T executeWrite(Session session, String query, TransactionCallback<T> callback) {
+        return timed(query, "write", recorder -> session.executeWrite(tx -> recorder.execute(tx, callback)));
+    }
+
+    private static <T> T timed(String query, String mode, Function<StatementRecorder, T> transaction) {
+        // Journal désactivé : ni proxy, ni consume(), ni allocation par transaction
+        StatementRecorder recorder = SlowQueryLog.isEnabled() ? new StatementRecorder(true) : StatementRecorder.DISABLED;
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = transaction.apply(recorder);
+            outcome = "success";
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            Metrics.NEO4J_TRANSACTIONS.observe(elapsed, query, mode, outcome);
+            recorder.log(elapsed);
+        }
+    }
+
+    private static final class Statement {
+
+        private final Object[] args;
+        private final Result result;
+        private long rows;
+        private ResultSummary summary;
+
+        private Statement(Object[] args, Result result) {
+            this.args = args;
+            this.result = result;
+        }
+    }
+
+    private static final class StatementRecorder {
+
+        // Sans état : n'enregistre jamais de requête, partagé par toutes les transactions
+        private static final StatementRecorder DISABLED = new StatementRecorder(false);
+
+        private final boolean enabled;
+        private final List<Statement> statements = new ArrayList<>();
+
+        private StatementRecorder(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        private <T> T execute(TransactionContext tx, TransactionCallback<T> callback) {
+            if (!enabled) {
+                return callback.execute(tx);
+            }
+
+            // executeRead / executeWrite peuvent rejouer le callback : seule la dernière tentative compte
+            statements.clear();
+            T value = callback.execute(recording(tx));
+            // Les résumés (durées côté serveur) doivent être lus avant la fermeture de la transaction
+            for (Statement statement : statements) {
+                statement.summary = statement.result.consume();
+            }
+            return value;
+        }
+
+        private void log(long transactionNanos) {
+            // Aucune requête d'une transaction rapide ne peut dépasser le seuil
+            if (!SlowQueryLog.isSlow(transactionNanos)) {
+                return;
+            }
+            for (Statement statement : statements) {
+                long nanos = transactionNanos;
+                if (statement.summary != null) {
+                    long availableAfter = statement.summary.resultAvailableAfter(TimeUnit.NANOSECONDS);
+                    long consumedAfter = statement.summary.resultConsumedAfter(TimeUnit.NANOSECONDS);
+                    if (availableAfter >= 0 && consumedAfter >= 0) {
+                        nanos = availableAfter + consumedAfter;
+                    }
+                }
+                if (SlowQueryLog.isSlow(nanos)) {
+                    SlowQueryLog.record("neo4j", queryText(statement.args[0]), parameterShapes(statement.args), statement.rows, nanos);
+                }
+            }
+        }
+
+        private TransactionContext recording(TransactionContext tx) {
+            return (TransactionContext) Proxy.newProxyInstance(TransactionContext.class.getClassLoader(),
+                    new Class<?>[]{TransactionContext.class}, (proxy, method, args) -> {
+                        Object value = invoke(tx, method, args);
+                        if (method.getName().equals("run") && value instanceof Result result) {
+                            Statement statement = new Statement(args, result);
+                            statements.add(statement);
+                            return counting(result, statement);
+                        }
+                        return value;
+                    });
+        }
+
+        // Compte les lignes effectivement lues par le service
+        private Result counting(Result result, Statement statement) {
+            return (Result) Proxy.newProxyInstance(Result.class.getClassLoader(),
+                    new Class<?>[]{Result.class}, (proxy, method, args) -> {
+                        Object value = invoke(result, method, args);
+                        switch (method.getName()) {
+                            case "next", "single" -> statement.rows++;
+                            case "list" -> statement.rows += ((List<?>) value).size();
+                            default -> { }
+                        }
+                        return value;
+                    });
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static String queryText(Object query) {
+        String text = query instanceof Query q ? q.text() : String.valueOf(query);
+        return text.strip().replaceAll("\\s+", " ");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> parameterShapes(Object[] args) {
+        Map<String, Object> parameters = Map.of();
+        if (args[0] instanceof Query q) {
+            parameters = q.parameters().asMap();
+        } else if (args.length > 1 && args[1] instanceof Map<?, ?> map) {
+            parameters = (Map<String, Object>) map;
+        } else if (args.length > 1 && args[1] instanceof Value value) {
+            parameters = value.asMap();
+        } else if (args.length > 1 && args[1] instanceof Record record) {
+            parameters = record.asMap();
+        }
+
+        Map<String, String> shapes = new LinkedHashMap<>();
+        parameters.forEach((name, value) -> shapes.put(name, shapeOf(value)));
+        return shapes;
+    }
+
+    private static String shapeOf(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof Collection<?> collection) {
+            return "list[" + collection.size() + "]";
+        }
+        if (value instanceof Map<?, ?>) {
+            return "map";
+        }
+        return value.getClass().getSimpleName().toLowerCase();
+    }
+}
@@ -0,0 +1,53 @@
+package fr.esgi.galapagos.metrics;
+
+import org.neo4j.driver.ConnectionPoolMetrics;
+import org.neo4j.driver.Driver;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+// Métriques du pool de connexions Neo4j, tenues par le driver lui-même (Config.withDriverMetrics)
+// et relues à chaque scraping. Une série par pool (un pool par serveur du cluster).
+public class Neo4jPoolMetrics {
+
+    private static volatile Driver driver;
+
+    static {
+        Metrics.register(Gauge.gauge("galapagos_neo4j_pool_in_use_connections", "Connexions Neo4j utilisées par une transaction",
+                () -> read(ConnectionPoolMetrics::inUse), "pool"));
+        Metrics.register(Gauge.gauge("galapagos_neo4j_pool_idle_connections", "Connexions Neo4j ouvertes et libres",
+                () -> read(ConnectionPoolMetrics::idle), "pool"));
+        Metrics.register(Gauge.gauge("galapagos_neo4j_pool_acquiring", "Demandes en attente d'une connexion Neo4j",
+                () -> read(ConnectionPoolMetrics::acquiring), "pool"));
+        Metrics.register(Gauge.counter("galapagos_neo4j_pool_acquired_total", "Connexions Neo4j obtenues du pool",
+                () -> read(ConnectionPoolMetrics::acquired), "pool"));
+        Metrics.register(Gauge.counter("galapagos_neo4j_pool_timed_out_total",
+                "Connexions Neo4j non obtenues dans le délai d'acquisition (pool épuisé)",
+                () -> read(ConnectionPoolMetrics::timedOutToAcquire), "pool"));
+        // Avec acquired_total : temps d'attente moyen d'une connexion
+        Metrics.register(Gauge.counter("galapagos_neo4j_pool_acquisition_milliseconds_total",
+                "Temps total passé à attendre une connexion Neo4j",
+                () -> read(ConnectionPoolMetrics::totalAcquisitionTime), "pool"));
+    }
+
+    private Neo4jPoolMetrics() {
+    }
+
+    public static void bind(Driver current) {
+        driver = current;
+    }
+
+    private static Map<List<String>, Long> read(ToLongFunction<ConnectionPoolMetrics> value) {
+        Map<List<String>, Long> values = new LinkedHashMap<>();
+        Driver current = driver;
+        if (current == null || !current.isMetricsEnabled()) {
+            return values;
+        }
+        for (ConnectionPoolMetrics pool : current.metrics().connectionPoolMetrics()) {
+            values.put(List.of(pool.id()), value.applyAsLong(pool));
+        }
+        return values;
+    }
+}
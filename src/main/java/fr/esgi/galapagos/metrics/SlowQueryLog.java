@@ -0,0 +1,68 @@
+package fr.esgi.galapagos.metrics;
+
+import fr.esgi.galapagos.config.ServerConfig;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+// Journal des requêtes lentes Mongo et Neo4j : seules les requêtes au-dessus du seuil sont conservées,
+// dans un tampon circulaire (les plus anciennes sont écrasées). Lu par la query GraphQL slowQueries.
+public class SlowQueryLog {
+
+    public record Entry(
+            String store,
+            String query,
+            Map<String, String> parameters,
+            long rows,
+            double durationMs,
+            String timestamp
+    ) {}
+
+    private static final long THRESHOLD_NANOS = ServerConfig.getSlowQueryThresholdMs() * 1_000_000L;
+    private static final int CAPACITY = ServerConfig.getSlowQueryLogSize();
+    private static final Deque<Entry> entries = new ArrayDeque<>(CAPACITY);
+
+    private SlowQueryLog() {
+    }
+
+    // Seuil négatif : journal désactivé
+    public static boolean isEnabled() {
+        return THRESHOLD_NANOS >= 0 && CAPACITY > 0;
+    }
+
+    public static boolean isSlow(long nanos) {
+        return isEnabled() && nanos >= THRESHOLD_NANOS;
+    }
+
+    public static void record(String store, String query, Map<String, String> parameters, long rows, long nanos) {
+        if (!isSlow(nanos)) {
+            return;
+        }
+        Entry entry = new Entry(store, query, parameters, rows, nanos / 1_000_000.0, Instant.now().toString());
+        synchronized (entries) {
+            if (entries.size() == CAPACITY) {
+                entries.removeFirst();
+            }
+            entries.addLast(entry);
+        }
+    }
+
+    // Les plus récentes d'abord
+    public static List<Entry> getEntries(String store, int limit) {
+        List<Entry> result = new ArrayList<>();
+        synchronized (entries) {
+            var iterator = entries.descendingIterator();
+            while (iterator.hasNext() && result.size() < limit) {
+                Entry entry = iterator.next();
+                if (store == null || store.equalsIgnoreCase(entry.store())) {
+                    result.add(entry);
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,56 @@
+package fr.esgi.galapagos.model.codec;
+
+import fr.esgi.galapagos.model.enums.BoxStatus;
+import fr.esgi.galapagos.model.mongodb.Box;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.util.Map;
+
+public class BoxCodec implements Codec<Box> {
+
+    private static final Map<String, BoxStatus> STATUSES = BsonFields.lowercaseLookup(BoxStatus.class);
+
+    @Override
+    public Box decode(BsonReader reader, DecoderContext decoderContext) {
+        Box box = new Box();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id" -> box.setId(BsonFields.readObjectId(reader));
+                case "order_id" -> box.setOrderId(BsonFields.readObjectId(reader));
+                case "client_id" -> box.setClientId(BsonFields.readObjectId(reader));
+                case "number" -> {
+                    Integer number = BsonFields.readInteger(reader);
+                    box.setNumber(number != null ? number : 0);
+                }
+                case "status" -> box.setStatus(BsonFields.readEnum(reader, STATUSES));
+                case "content" -> box.setContent(BsonFields.readString(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return box;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Box box, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        BsonFields.writeObjectId(writer, "_id", box.getId());
+        BsonFields.writeObjectId(writer, "order_id", box.getOrderId());
+        BsonFields.writeObjectId(writer, "client_id", box.getClientId());
+        writer.writeInt32("number", box.getNumber());
+        BsonFields.writeEnum(writer, "status", box.getStatus());
+        BsonFields.writeString(writer, "content", box.getContent());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<Box> getEncoderClass() {
+        return Box.class;
+    }
+}
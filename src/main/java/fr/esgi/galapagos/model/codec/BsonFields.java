@@ -0,0 +1,204 @@
+package fr.esgi.galapagos.model.codec;
+
+import fr.esgi.galapagos.helper.DateHelper;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.types.ObjectId;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Lecture / écriture des champs communs aux codecs. Les lectures acceptent null et les différents types
+// numériques (un entier peut avoir été enregistré en int32, int64 ou double selon l'outil d'import).
+final class BsonFields {
+
+    private BsonFields() {
+    }
+
+    static String readString(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.STRING) {
+            return reader.readString();
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    // BSON Date, ou ancienne date texte pas encore migrée par DateBackfill
+    static Instant readInstant(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case DATE_TIME -> Instant.ofEpochMilli(reader.readDateTime());
+            case STRING -> DateHelper.fromLegacy(reader.readString());
+            default -> {
+                reader.skipValue();
+                yield null;
+            }
+        };
+    }
+
+    static ObjectId readObjectId(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.OBJECT_ID) {
+            return reader.readObjectId();
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    static Integer readInteger(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case INT32 -> reader.readInt32();
+            case INT64 -> (int) reader.readInt64();
+            case DOUBLE -> (int) reader.readDouble();
+            default -> {
+                reader.skipValue();
+                yield null;
+            }
+        };
+    }
+
+    static Double readDouble(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case DOUBLE -> reader.readDouble();
+            case INT32 -> (double) reader.readInt32();
+            case INT64 -> (double) reader.readInt64();
+            case DECIMAL128 -> reader.readDecimal128().doubleValue();
+            default -> {
+                reader.skipValue();
+                yield null;
+            }
+        };
+    }
+
+    static List<ObjectId> readObjectIds(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+        List<ObjectId> values = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            values.add(readObjectId(reader));
+        }
+        reader.readEndArray();
+        return values;
+    }
+
+    static List<String> readStrings(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            values.add(readString(reader));
+        }
+        reader.readEndArray();
+        return values;
+    }
+
+    // Les statuts sont stockés en minuscules : table de correspondance calculée une fois par enum
+    static <E extends Enum<E>> Map<String, E> lowercaseLookup(Class<E> enumClass) {
+        Map<String, E> lookup = new HashMap<>();
+        for (E value : enumClass.getEnumConstants()) {
+            lookup.put(value.name().toLowerCase(), value);
+        }
+        return Map.copyOf(lookup);
+    }
+
+    static <E extends Enum<E>> E readEnum(BsonReader reader, Map<String, E> lookup) {
+        String value = readString(reader);
+        if (value == null) {
+            return null;
+        }
+        E result = lookup.get(value);
+        if (result == null) {
+            // Valeur en majuscules ou casse mixte : cas rare, on retombe sur la conversion
+            result = lookup.get(value.toLowerCase());
+        }
+        if (result == null) {
+            throw new IllegalArgumentException("Statut inconnu : " + value);
+        }
+        return result;
+    }
+
+    static void writeString(BsonWriter writer, String name, String value) {
+        if (value == null) {
+            writer.writeNull(name);
+        } else {
+            writer.writeString(name, value);
+        }
+    }
+
+    static void writeInstant(BsonWriter writer, String name, Instant value) {
+        if (value == null) {
+            writer.writeNull(name);
+        } else {
+            writer.writeDateTime(name, value.toEpochMilli());
+        }
+    }
+
+    static void writeObjectId(BsonWriter writer, String name, ObjectId value) {
+        if (value == null) {
+            writer.writeNull(name);
+        } else {
+            writer.writeObjectId(name, value);
+        }
+    }
+
+    static void writeInteger(BsonWriter writer, String name, Integer value) {
+        if (value == null) {
+            writer.writeNull(name);
+        } else {
+            writer.writeInt32(name, value);
+        }
+    }
+
+    static void writeDouble(BsonWriter writer, String name, Double value) {
+        if (value == null) {
+            writer.writeNull(name);
+        } else {
+            writer.writeDouble(name, value);
+        }
+    }
+
+    static void writeEnum(BsonWriter writer, String name, Enum<?> value) {
+        writeString(writer, name, value == null ? null : value.name().toLowerCase());
+    }
+
+    static void writeObjectIds(BsonWriter writer, String name, List<ObjectId> values) {
+        if (values == null) {
+            writer.writeNull(name);
+            return;
+        }
+        writer.writeStartArray(name);
+        for (ObjectId value : values) {
+            // Élément null conservé tel quel, relu en null par readObjectIds
+            if (value == null) {
+                writer.writeNull();
+            } else {
+                writer.writeObjectId(value);
+            }
+        }
+        writer.writeEndArray();
+    }
+
+    static void writeStrings(BsonWriter writer, String name, List<String> values) {
+        if (values == null) {
+            writer.writeNull(name);
+            return;
+        }
+        writer.writeStartArray(name);
+        for (String value : values) {
+            if (value == null) {
+                writer.writeNull();
+            } else {
+                writer.writeString(value);
+            }
+        }
+        writer.writeEndArray();
+    }
+}
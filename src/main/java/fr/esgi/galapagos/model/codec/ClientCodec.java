@@ -0,0 +1,50 @@
+package fr.esgi.galapagos.model.codec;
+
+import fr.esgi.galapagos.model.mongodb.Client;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+public class ClientCodec implements Codec<Client> {
+
+    @Override
+    public Client decode(BsonReader reader, DecoderContext decoderContext) {
+        Client client = new Client();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id" -> client.setId(BsonFields.readObjectId(reader));
+                case "name" -> client.setName(BsonFields.readString(reader));
+                case "type" -> client.setType(BsonFields.readString(reader));
+                case "specialty" -> client.setSpecialty(BsonFields.readString(reader));
+                case "study" -> client.setStudy(BsonFields.readString(reader));
+                case "email" -> client.setEmail(BsonFields.readString(reader));
+                case "order_history" -> client.setOrderHistory(BsonFields.readObjectIds(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return client;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Client client, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        BsonFields.writeObjectId(writer, "_id", client.getId());
+        BsonFields.writeString(writer, "name", client.getName());
+        BsonFields.writeString(writer, "type", client.getType());
+        BsonFields.writeString(writer, "specialty", client.getSpecialty());
+        BsonFields.writeString(writer, "study", client.getStudy());
+        BsonFields.writeString(writer, "email", client.getEmail());
+        BsonFields.writeObjectIds(writer, "order_history", client.getOrderHistory());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<Client> getEncoderClass() {
+        return Client.class;
+    }
+}
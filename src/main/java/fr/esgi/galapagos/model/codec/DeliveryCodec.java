@@ -0,0 +1,76 @@
+package fr.esgi.galapagos.model.codec;
+
+import fr.esgi.galapagos.model.enums.DeliveryStatus;
+import fr.esgi.galapagos.model.mongodb.Delivery;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.util.Map;
+
+public class DeliveryCodec implements Codec<Delivery> {
+
+    private static final Map<String, DeliveryStatus> STATUSES = BsonFields.lowercaseLookup(DeliveryStatus.class);
+
+    @Override
+    public Delivery decode(BsonReader reader, DecoderContext decoderContext) {
+        Delivery delivery = new Delivery();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id" -> delivery.setId(BsonFields.readObjectId(reader));
+                case "order_id" -> delivery.setOrderId(BsonFields.readObjectId(reader));
+                case "seaplane_id" -> delivery.setSeaplaneId(BsonFields.readString(reader));
+                case "status" -> delivery.setStatus(BsonFields.readEnum(reader, STATUSES));
+                case "departure_date" -> delivery.setDepartureDate(BsonFields.readInstant(reader));
+                case "arrival_date" -> delivery.setArrivalDate(BsonFields.readInstant(reader));
+                case "scheduled_departure" -> delivery.setScheduledDeparture(BsonFields.readInstant(reader));
+                case "delay_reason" -> delivery.setDelayReason(BsonFields.readString(reader));
+                case "planned_route" -> delivery.setPlannedRoute(BsonFields.readStrings(reader));
+                case "current_port" -> delivery.setCurrentPort(BsonFields.readString(reader));
+                case "destination_port" -> delivery.setDestinationPort(BsonFields.readString(reader));
+                case "transported_boxes" -> delivery.setTransportedBoxes(BsonFields.readObjectIds(reader));
+                case "total_distance_km" -> {
+                    Double distance = BsonFields.readDouble(reader);
+                    delivery.setTotalDistanceKm(distance != null ? distance : 0);
+                }
+                case "estimated_fuel_l" -> {
+                    Double fuel = BsonFields.readDouble(reader);
+                    delivery.setEstimatedFuelL(fuel != null ? fuel : 0);
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return delivery;
+    }
+
+    // Les champs optionnels absents ne sont pas écrits
+    @Override
+    public void encode(BsonWriter writer, Delivery delivery, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        BsonFields.writeObjectId(writer, "_id", delivery.getId());
+        BsonFields.writeObjectId(writer, "order_id", delivery.getOrderId());
+        BsonFields.writeString(writer, "seaplane_id", delivery.getSeaplaneId());
+        BsonFields.writeEnum(writer, "status", delivery.getStatus());
+        BsonFields.writeStrings(writer, "planned_route", delivery.getPlannedRoute());
+        BsonFields.writeString(writer, "destination_port", delivery.getDestinationPort());
+        if (delivery.getDepartureDate() != null) writer.writeDateTime("departure_date", delivery.getDepartureDate().toEpochMilli());
+        if (delivery.getArrivalDate() != null) writer.writeDateTime("arrival_date", delivery.getArrivalDate().toEpochMilli());
+        if (delivery.getScheduledDeparture() != null) writer.writeDateTime("scheduled_departure", delivery.getScheduledDeparture().toEpochMilli());
+        if (delivery.getDelayReason() != null) writer.writeString("delay_reason", delivery.getDelayReason());
+        if (delivery.getCurrentPort() != null) writer.writeString("current_port", delivery.getCurrentPort());
+        if (delivery.getTransportedBoxes() != null) BsonFields.writeObjectIds(writer, "transported_boxes", delivery.getTransportedBoxes());
+        if (delivery.getTotalDistanceKm() > 0) writer.writeDouble("total_distance_km", delivery.getTotalDistanceKm());
+        if (delivery.getEstimatedFuelL() > 0) writer.writeDouble("estimated_fuel_l", delivery.getEstimatedFuelL());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<Delivery> getEncoderClass() {
+        return Delivery.class;
+    }
+}
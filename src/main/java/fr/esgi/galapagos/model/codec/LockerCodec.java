@@ -0,0 +1,67 @@
+package fr.esgi.galapagos.model.codec;
+
+import fr.esgi.galapagos.model.enums.LockerStatus;
+import fr.esgi.galapagos.model.mongodb.Locker;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.util.Map;
+
+public class LockerCodec implements Codec<Locker> {
+
+    private static final Map<String, LockerStatus> STATUSES = BsonFields.lowercaseLookup(LockerStatus.class);
+
+    @Override
+    public Locker decode(BsonReader reader, DecoderContext decoderContext) {
+        Locker locker = new Locker();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id" -> locker.setId(BsonFields.readObjectId(reader));
+                case "port_id" -> {
+                    Integer portId = BsonFields.readInteger(reader);
+                    locker.setPortId(portId != null ? portId : 0);
+                }
+                case "number" -> {
+                    Integer number = BsonFields.readInteger(reader);
+                    locker.setNumber(number != null ? number : 0);
+                }
+                case "status" -> locker.setStatus(BsonFields.readEnum(reader, STATUSES));
+                case "box_id" -> locker.setBoxId(BsonFields.readObjectId(reader));
+                case "reserved_for_order_id" -> locker.setReservedForOrderId(BsonFields.readObjectId(reader));
+                case "maintenance_reason" -> locker.setMaintenanceReason(BsonFields.readString(reader));
+                case "last_used" -> locker.setLastUsed(BsonFields.readString(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return locker;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Locker locker, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        BsonFields.writeObjectId(writer, "_id", locker.getId());
+        writer.writeInt32("port_id", locker.getPortId());
+        writer.writeInt32("number", locker.getNumber());
+        BsonFields.writeEnum(writer, "status", locker.getStatus());
+        BsonFields.writeObjectId(writer, "box_id", locker.getBoxId());
+        BsonFields.writeString(writer, "last_used", locker.getLastUsed());
+        if (locker.getReservedForOrderId() != null) {
+            writer.writeObjectId("reserved_for_order_id", locker.getReservedForOrderId());
+        }
+        if (locker.getMaintenanceReason() != null) {
+            writer.writeString("maintenance_reason", locker.getMaintenanceReason());
+        }
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<Locker> getEncoderClass() {
+        return Locker.class;
+    }
+}
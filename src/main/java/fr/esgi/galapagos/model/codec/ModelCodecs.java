@@ -0,0 +1,25 @@
+package fr.esgi.galapagos.model.codec;
+
+import com.mongodb.MongoClientSettings;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+
+// Codecs des modèles Mongo : les documents BSON sont décodés directement dans les objets du modèle,
+// sans Document intermédiaire. Les codecs par défaut (Document, types Java) restent disponibles.
+public class ModelCodecs {
+
+    public static final CodecRegistry REGISTRY = CodecRegistries.fromRegistries(
+            CodecRegistries.fromCodecs(
+                    new BoxCodec(),
+                    new ClientCodec(),
+                    new DeliveryCodec(),
+                    new LockerCodec(),
+                    new OrderCodec(),
+                    new ProductCodec()
+            ),
+            MongoClientSettings.getDefaultCodecRegistry()
+    );
+
+    private ModelCodecs() {
+    }
+}
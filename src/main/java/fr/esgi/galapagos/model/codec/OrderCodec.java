@@ -0,0 +1,111 @@
+package fr.esgi.galapagos.model.codec;
+
+import fr.esgi.galapagos.model.enums.OrderStatus;
+import fr.esgi.galapagos.model.mongodb.Order;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class OrderCodec implements Codec<Order> {
+
+    private static final Map<String, OrderStatus> STATUSES = BsonFields.lowercaseLookup(OrderStatus.class);
+
+    @Override
+    public Order decode(BsonReader reader, DecoderContext decoderContext) {
+        Order order = new Order();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id" -> order.setId(BsonFields.readObjectId(reader));
+                case "client_id" -> order.setClientId(BsonFields.readObjectId(reader));
+                case "order_date" -> order.setOrderDate(BsonFields.readInstant(reader));
+                case "status" -> order.setStatus(BsonFields.readEnum(reader, STATUSES));
+                case "priority" -> order.setPriority(BsonFields.readString(reader));
+                case "delivery_port" -> order.setDeliveryPort(BsonFields.readString(reader));
+                case "products" -> order.setProducts(readProducts(reader));
+                case "box_count" -> {
+                    Integer boxCount = BsonFields.readInteger(reader);
+                    order.setBoxCount(boxCount != null ? boxCount : 0);
+                }
+                case "boxes_delivered" -> {
+                    Integer boxesDelivered = BsonFields.readInteger(reader);
+                    order.setBoxesDelivered(boxesDelivered != null ? boxesDelivered : 0);
+                }
+                case "total_weight_kg" -> {
+                    Double totalWeightKg = BsonFields.readDouble(reader);
+                    order.setTotalWeightKg(totalWeightKg != null ? totalWeightKg : 0);
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return order;
+    }
+
+    private List<Order.OrderedProduct> readProducts(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+        List<Order.OrderedProduct> products = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            ObjectId productId = null;
+            Integer quantity = null;
+            reader.readStartDocument();
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                switch (reader.readName()) {
+                    case "product_id" -> productId = BsonFields.readObjectId(reader);
+                    case "quantity" -> quantity = BsonFields.readInteger(reader);
+                    default -> reader.skipValue();
+                }
+            }
+            reader.readEndDocument();
+            products.add(new Order.OrderedProduct(productId, quantity != null ? quantity : 0));
+        }
+        reader.readEndArray();
+        return products;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Order order, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        BsonFields.writeObjectId(writer, "_id", order.getId());
+        BsonFields.writeObjectId(writer, "client_id", order.getClientId());
+        BsonFields.writeInstant(writer, "order_date", order.getOrderDate());
+        BsonFields.writeEnum(writer, "status", order.getStatus());
+        BsonFields.writeString(writer, "priority", order.getPriority());
+        BsonFields.writeString(writer, "delivery_port", order.getDeliveryPort());
+
+        writer.writeStartArray("products");
+        if (order.getProducts() != null) {
+            for (Order.OrderedProduct product : order.getProducts()) {
+                writer.writeStartDocument();
+                BsonFields.writeObjectId(writer, "product_id", product.getProductId());
+                writer.writeInt32("quantity", product.getQuantity());
+                writer.writeEndDocument();
+            }
+        }
+        writer.writeEndArray();
+
+        writer.writeInt32("box_count", order.getBoxCount());
+        writer.writeDouble("total_weight_kg", order.getTotalWeightKg());
+        if (order.getBoxesDelivered() > 0) {
+            writer.writeInt32("boxes_delivered", order.getBoxesDelivered());
+        }
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<Order> getEncoderClass() {
+        return Order.class;
+    }
+}
@@ -0,0 +1,48 @@
+package fr.esgi.galapagos.model.codec;
+
+import fr.esgi.galapagos.model.mongodb.Product;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+public class ProductCodec implements Codec<Product> {
+
+    @Override
+    public Product decode(BsonReader reader, DecoderContext decoderContext) {
+        Product product = new Product();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id" -> product.setId(BsonFields.readObjectId(reader));
+                case "name" -> product.setName(BsonFields.readString(reader));
+                case "description" -> product.setDescription(BsonFields.readString(reader));
+                case "stock_available" -> product.setStockAvailable(BsonFields.readInteger(reader));
+                case "weight_kg" -> product.setWeightKg(BsonFields.readDouble(reader));
+                case "unit_price" -> product.setUnitPrice(BsonFields.readDouble(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return product;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Product product, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        BsonFields.writeObjectId(writer, "_id", product.getId());
+        BsonFields.writeString(writer, "name", product.getName());
+        BsonFields.writeString(writer, "description", product.getDescription());
+        BsonFields.writeInteger(writer, "stock_available", product.getStockAvailable());
+        BsonFields.writeDouble(writer, "weight_kg", product.getWeightKg());
+        BsonFields.writeDouble(writer, "unit_price", product.getUnitPrice());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<Product> getEncoderClass() {
+        return Product.class;
+    }
+}
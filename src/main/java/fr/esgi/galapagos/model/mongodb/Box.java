@@ -1,7 +1,6 @@
 package fr.esgi.galapagos.model.mongodb;
 
 import fr.esgi.galapagos.model.enums.BoxStatus;
-import org.bson.Document;
 import org.bson.types.ObjectId;
 
 public class Box {
@@ -12,6 +11,9 @@ public class Box {
     private BoxStatus status;
     private String content;
 
+    public Box() {
+    }
+
     public Box(ObjectId orderId, ObjectId clientId, int number, BoxStatus status, String content) {
         this.id = new ObjectId();
         this.orderId = orderId;
@@ -23,15 +25,6 @@ public class Box {
 
     public ObjectId getId() { return id; }
 
-    public Document toDocument() {
-        return new Document("_id", id)
-                .append("order_id", orderId)
-                .append("client_id", clientId)
-                .append("number", number)
-                .append("status", status.name().toLowerCase())
-                .append("content", content);
-    }
-
     public ObjectId getOrderId() {
         return orderId;
     }
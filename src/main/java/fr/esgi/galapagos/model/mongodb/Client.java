@@ -1,6 +1,5 @@
 package fr.esgi.galapagos.model.mongodb;
 
-import org.bson.Document;
 import org.bson.types.ObjectId;
 import java.util.ArrayList;
 import java.util.List;
@@ -14,6 +13,9 @@ public class Client {
     private String email;
     private List<ObjectId> orderHistory;
 
+    public Client() {
+    }
+
     public Client(String name, String type, String specialty, String study, String email) {
         this.id = new ObjectId();
         this.name = name;
@@ -26,16 +28,6 @@ public class Client {
 
     public ObjectId getId() { return id; }
 
-    public Document toDocument() {
-        return new Document("_id", id)
-                .append("name", name)
-                .append("type", type)
-                .append("specialty", specialty)
-                .append("study", study)
-                .append("email", email)
-                .append("order_history", orderHistory);
-    }
-
     public void setId(ObjectId id) {
         this.id = id;
     }
@@ -1,8 +1,9 @@
 package fr.esgi.galapagos.model.mongodb;
 
 import fr.esgi.galapagos.model.enums.DeliveryStatus;
-import org.bson.Document;
 import org.bson.types.ObjectId;
+
+import java.time.Instant;
 import java.util.List;
 
 public class Delivery {
@@ -10,9 +11,9 @@ public class Delivery {
     private ObjectId orderId;
     private String seaplaneId;
     private DeliveryStatus status;
-    private String departureDate;
-    private String arrivalDate;
-    private String scheduledDeparture;
+    private Instant departureDate;
+    private Instant arrivalDate;
+    private Instant scheduledDeparture;
     private String delayReason;
     private List<String> plannedRoute;
     private String currentPort;
@@ -21,6 +22,9 @@ public class Delivery {
     private double totalDistanceKm;
     private double estimatedFuelL;
 
+    public Delivery() {
+    }
+
     public Delivery(ObjectId orderId, String seaplaneId, DeliveryStatus status) {
         this.id = new ObjectId();
         this.orderId = orderId;
@@ -28,9 +32,9 @@ public class Delivery {
         this.status = status;
     }
 
-    public Delivery departureDate(String d) { this.departureDate = d; return this; }
-    public Delivery arrivalDate(String d) { this.arrivalDate = d; return this; }
-    public Delivery scheduledDeparture(String d) { this.scheduledDeparture = d; return this; }
+    public Delivery departureDate(Instant d) { this.departureDate = d; return this; }
+    public Delivery arrivalDate(Instant d) { this.arrivalDate = d; return this; }
+    public Delivery scheduledDeparture(Instant d) { this.scheduledDeparture = d; return this; }
     public Delivery delayReason(String r) { this.delayReason = r; return this; }
     public Delivery route(List<String> r, String dest, double dist) {
         this.plannedRoute = r;
@@ -45,26 +49,6 @@ public class Delivery {
     }
     public Delivery boxes(List<ObjectId> b) { this.transportedBoxes = b; return this; }
 
-    public Document toDocument() {
-        Document doc = new Document("_id", id)
-                .append("order_id", orderId)
-                .append("seaplane_id", seaplaneId)
-                .append("status", status.name().toLowerCase())
-                .append("planned_route", plannedRoute)
-                .append("destination_port", destinationPort);
-
-        if (departureDate != null) doc.append("departure_date", departureDate);
-        if (arrivalDate != null) doc.append("arrival_date", arrivalDate);
-        if (scheduledDeparture != null) doc.append("scheduled_departure", scheduledDeparture);
-        if (delayReason != null) doc.append("delay_reason", delayReason);
-        if (currentPort != null) doc.append("current_port", currentPort);
-        if (transportedBoxes != null) doc.append("transported_boxes", transportedBoxes);
-        if (totalDistanceKm > 0) doc.append("total_distance_km", totalDistanceKm);
-        if (estimatedFuelL > 0) doc.append("estimated_fuel_l", estimatedFuelL);
-
-        return doc;
-    }
-
     public ObjectId getId() {
         return id;
     }
@@ -97,27 +81,27 @@ public class Delivery {
         this.status = status;
     }
 
-    public String getDepartureDate() {
+    public Instant getDepartureDate() {
         return departureDate;
     }
 
-    public void setDepartureDate(String departureDate) {
+    public void setDepartureDate(Instant departureDate) {
         this.departureDate = departureDate;
     }
 
-    public String getArrivalDate() {
+    public Instant getArrivalDate() {
         return arrivalDate;
     }
 
-    public void setArrivalDate(String arrivalDate) {
+    public void setArrivalDate(Instant arrivalDate) {
         this.arrivalDate = arrivalDate;
     }
 
-    public String getScheduledDeparture() {
+    public Instant getScheduledDeparture() {
         return scheduledDeparture;
     }
 
-    public void setScheduledDeparture(String scheduledDeparture) {
+    public void setScheduledDeparture(Instant scheduledDeparture) {
         this.scheduledDeparture = scheduledDeparture;
     }
 
@@ -1,7 +1,6 @@
 package fr.esgi.galapagos.model.mongodb;
 
 import fr.esgi.galapagos.model.enums.LockerStatus;
-import org.bson.Document;
 import org.bson.types.ObjectId;
 
 public class Locker {
@@ -14,6 +13,9 @@ public class Locker {
     private String maintenanceReason;
     private String lastUsed;
 
+    public Locker() {
+    }
+
     public Locker(int portId, int number) {
         this.id = new ObjectId();
         this.portId = portId;
@@ -21,20 +23,6 @@ public class Locker {
         this.status = LockerStatus.EMPTY;
     }
 
-    public Document toDocument() {
-        Document doc = new Document("_id", id)
-                .append("port_id", portId)
-                .append("number", number)
-                .append("status", status.name().toLowerCase())
-                .append("box_id", boxId)
-                .append("last_used", lastUsed);
-
-        if (reservedForOrderId != null) doc.append("reserved_for_order_id", reservedForOrderId);
-        if (maintenanceReason != null) doc.append("maintenance_reason", maintenanceReason);
-
-        return doc;
-    }
-
     public ObjectId getId() {
         return id;
     }
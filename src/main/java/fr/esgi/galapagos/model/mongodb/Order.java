@@ -1,15 +1,15 @@
 package fr.esgi.galapagos.model.mongodb;
 
 import fr.esgi.galapagos.model.enums.OrderStatus;
-import org.bson.Document;
 import org.bson.types.ObjectId;
+
+import java.time.Instant;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class Order {
     private ObjectId id;
     private ObjectId clientId;
-    private String orderDate;
+    private Instant orderDate;
     private OrderStatus status;
     private String priority;
     private String deliveryPort;
@@ -18,7 +18,10 @@ public class Order {
     private int boxesDelivered;
     private double totalWeightKg;
 
-    public Order(ObjectId clientId, String orderDate, OrderStatus status, String priority, String deliveryPort, List<OrderedProduct> products, int boxCount, double totalWeightKg) {
+    public Order() {
+    }
+
+    public Order(ObjectId clientId, Instant orderDate, OrderStatus status, String priority, String deliveryPort, List<OrderedProduct> products, int boxCount, double totalWeightKg) {
         this.id = new ObjectId();
         this.clientId = clientId;
         this.orderDate = orderDate;
@@ -31,27 +34,6 @@ public class Order {
         this.boxesDelivered = 0;
     }
 
-    public Document toDocument() {
-        List<Document> productsDocs = products.stream()
-                .map(OrderedProduct::toDocument)
-                .collect(Collectors.toList());
-
-        Document doc = new Document("_id", id)
-                .append("client_id", clientId)
-                .append("order_date", orderDate)
-                .append("status", status.name().toLowerCase())
-                .append("priority", priority)
-                .append("delivery_port", deliveryPort)
-                .append("products", productsDocs)
-                .append("box_count", boxCount)
-                .append("total_weight_kg", totalWeightKg);
-
-        if (boxesDelivered > 0) {
-            doc.append("boxes_delivered", boxesDelivered);
-        }
-        return doc;
-    }
-
     public static class OrderedProduct {
         private ObjectId productId;
         private int quantity;
@@ -61,10 +43,6 @@ public class Order {
             this.quantity = quantity;
         }
 
-        public Document toDocument() {
-            return new Document("product_id", productId).append("quantity", quantity);
-        }
-
         public ObjectId getProductId() {
             return productId;
         }
@@ -99,11 +77,11 @@ public class Order {
         this.clientId = clientId;
     }
 
-    public String getOrderDate() {
+    public Instant getOrderDate() {
         return orderDate;
     }
 
-    public void setOrderDate(String orderDate) {
+    public void setOrderDate(Instant orderDate) {
         this.orderDate = orderDate;
     }
 
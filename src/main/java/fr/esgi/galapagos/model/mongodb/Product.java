@@ -1,6 +1,5 @@
 package fr.esgi.galapagos.model.mongodb;
 
-import org.bson.Document;
 import org.bson.types.ObjectId;
 
 public class Product {
@@ -11,6 +10,9 @@ public class Product {
     private Double weightKg;
     private Double unitPrice;
 
+    public Product() {
+    }
+
     public Product(String name, String description, Integer stockAvailable, Double weightKg, Double unitPrice) {
         this.id = new ObjectId();
         this.name = name;
@@ -24,15 +26,6 @@ public class Product {
         return id;
     }
 
-    public Document toDocument() {
-        return new Document("_id", id)
-                .append("name", name)
-                .append("description", description)
-                .append("stock_available", stockAvailable)
-                .append("weight_kg", weightKg)
-                .append("unit_price", unitPrice);
-    }
-
     public void setId(ObjectId id) {
         this.id = id;
     }
@@ -0,0 +1,178 @@
+package fr.esgi.galapagos.server;
+
+import fr.esgi.galapagos.config.ServerConfig;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Contrôle d'admission devant /graphql : nombre de requêtes exécutées en parallèle limité,
+// avec une limite qui s'adapte à la latence observée (algorithme par gradient, inspiré de Netflix concurrency-limits).
+// Tant que la latence reste proche de la latence de référence la limite augmente, dès qu'elle se dégrade elle diminue.
+// Chaque priorité n'a accès qu'à une part de la limite : en surcharge, les lectures coûteuses sont refusées
+// en premier, puis les autres lectures, les écritures en dernier.
+public class AdmissionController {
+
+    public enum Priority {
+        WRITE(1.0),
+        READ(0.8),
+        // Lecture dont la complexité dépasse ADMISSION_HEAVY_READ_COMPLEXITY, ou export complet
+        HEAVY_READ(0.5);
+
+        // Part de la limite utilisable
+        private final double share;
+
+        Priority(double share) {
+            this.share = share;
+        }
+    }
+
+    // Latence courante tolérée par rapport à la latence de référence avant de réduire la limite
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    // Poids d'un échantillon dans la latence de référence (moyenne lente)
+    private static final double LONG_RTT_WEIGHT = 0.01;
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int heavyReadComplexity;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+
+    // Limite et latence de référence changent ensemble : un seul état immuable, remplacé par compareAndSet
+    // à chaque échantillon (pas de verrou global sur le chemin de fin de chaque requête)
+    private record State(double limit, double longRttNanos) {}
+
+    private final AtomicReference<State> state;
+
+    public AdmissionController(boolean enabled, int initialLimit, int minLimit, int maxLimit, int heavyReadComplexity) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limites d'admission invalides : min=" + minLimit + ", max=" + maxLimit);
+        }
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.heavyReadComplexity = heavyReadComplexity;
+        this.state = new AtomicReference<>(new State(Math.clamp(initialLimit, minLimit, maxLimit), 0));
+    }
+
+    public static AdmissionController fromConfig() {
+        return new AdmissionController(
+                ServerConfig.isAdmissionControlEnabled(),
+                ServerConfig.getAdmissionInitialLimit(),
+                ServerConfig.getAdmissionMinLimit(),
+                ServerConfig.getAdmissionMaxLimit(),
+                ServerConfig.getAdmissionHeavyReadComplexity()
+        );
+    }
+
+    // Priorité d'une opération GraphQL selon son type et sa complexité (calculée avec la directive @cost)
+    public Priority priorityOf(boolean mutation, int complexity) {
+        if (mutation) {
+            return Priority.WRITE;
+        }
+        return complexity > heavyReadComplexity ? Priority.HEAVY_READ : Priority.READ;
+    }
+
+    // null si la requête doit être refusée
+    public Permit tryAcquire(Priority priority) {
+        return tryAcquire(priority, true);
+    }
+
+    // Traitement long (import en masse) : il occupe une place, mais sa durée, liée au volume de données
+    // et non à la charge du serveur, n'est pas prise comme échantillon de latence
+    public Permit tryAcquireLongRunning(Priority priority) {
+        return tryAcquire(priority, false);
+    }
+
+    private Permit tryAcquire(Priority priority, boolean sampled) {
+        if (!enabled) {
+            inFlight.incrementAndGet();
+            return new Permit(System.nanoTime(), sampled);
+        }
+
+        double allowed = Math.max(1, state.get().limit() * priority.share);
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                rejected.incrementAndGet();
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(System.nanoTime(), sampled);
+            }
+        }
+    }
+
+    private void onSample(long rttNanos, int inFlightAtStart) {
+        if (!enabled || rttNanos <= 0) {
+            return;
+        }
+        while (true) {
+            State current = state.get();
+            State next = next(current, rttNanos, inFlightAtStart);
+            if (state.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    private State next(State current, long rttNanos, int inFlightAtStart) {
+        double limit = current.limit();
+        double longRttNanos = current.longRttNanos() == 0
+                ? rttNanos
+                : current.longRttNanos() * (1 - LONG_RTT_WEIGHT) + rttNanos * LONG_RTT_WEIGHT;
+
+        // Serveur peu sollicité : la latence ne dit rien de la limite, on ne l'augmente pas
+        if (inFlightAtStart < limit / 2) {
+            return new State(limit, longRttNanos);
+        }
+
+        double gradient = Math.clamp(TOLERANCE * longRttNanos / rttNanos, 0.5, 1.0);
+        double queueSize = Math.sqrt(limit);
+        double newLimit = limit * gradient + queueSize;
+        return new State(Math.clamp(limit * (1 - SMOOTHING) + newLimit * SMOOTHING, minLimit, maxLimit), longRttNanos);
+    }
+
+    public int getLimit() {
+        return (int) state.get().limit();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public final class Permit {
+
+        private final long start;
+        private final int inFlightAtStart;
+        private final boolean sampled;
+        private boolean released;
+
+        private Permit(long start, boolean sampled) {
+            this.start = start;
+            this.inFlightAtStart = inFlight.get();
+            this.sampled = sampled;
+        }
+
+        public void release() {
+            if (released) {
+                return;
+            }
+            released = true;
+            inFlight.decrementAndGet();
+            if (sampled) {
+                onSample(System.nanoTime() - start, inFlightAtStart);
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package fr.esgi.galapagos.server;
+
+import com.google.gson.Gson;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCursor;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import fr.esgi.galapagos.config.ServerConfig;
+import fr.esgi.galapagos.metrics.Metrics;
+import fr.esgi.galapagos.service.ExportService;
+import fr.esgi.galapagos.service.ExportService.ExportSpec;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.bson.types.ObjectId;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+// GET /export/{orders|boxes|deliveries}?format=ndjson|csv&status=...&client_id=...&from=...&to=...
+// Chaque document est écrit dans la réponse dès sa lecture (Transfer-Encoding: chunked, gzip si accepté) :
+// ni liste complète en mémoire, ni réponse JSON géante comme avec /graphql.
+// Un export complet occupe un thread de requête pendant toute sa durée : leur nombre simultané est borné
+// par EXPORT_MAX_CONCURRENT, au-delà la requête est refusée (503) pour ne pas priver /graphql de threads.
+// Pas de passage par l'AdmissionController : sa limite s'adapte à la latence, qu'un export fausserait.
+public class ExportHandler implements HttpHandler {
+
+    private static final String RETRY_AFTER_SECONDS = "10";
+
+    // ObjectId et dates en texte plutôt qu'en {"$oid": ...} / {"$date": ...} : les lignes sont lues par des outils qui ne connaissent pas l'Extended JSON
+    private static final JsonWriterSettings JSON_SETTINGS = JsonWriterSettings.builder()
+            .outputMode(JsonMode.RELAXED)
+            .objectIdConverter((value, writer) -> writer.writeString(value.toHexString()))
+            .dateTimeConverter((value, writer) -> writer.writeString(Instant.ofEpochMilli(value).toString()))
+            .build();
+
+    private final ExportService exportService = new ExportService();
+    private final Gson gson = new Gson();
+    private final int batchSize = ServerConfig.getExportBatchSize();
+    private final Semaphore running = new Semaphore(ServerConfig.getExportMaxConcurrent());
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
+
+        if (!exchange.getRequestMethod().equalsIgnoreCase("GET")) {
+            exchange.sendResponseHeaders(405, -1);
+            return;
+        }
+
+        if (!running.tryAcquire()) {
+            exchange.getResponseHeaders().add("Retry-After", RETRY_AFTER_SECONDS);
+            sendError(exchange, 503, "Trop d'exports en cours, réessayez plus tard");
+            return;
+        }
+        try {
+            export(exchange);
+        } finally {
+            running.release();
+        }
+    }
+
+    private void export(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String collection = path.substring(exchange.getHttpContext().getPath().length()).replaceAll("^/+|/+$", "");
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        boolean csv = isCsv(exchange, params.get("format"));
+
+        ExportSpec spec;
+        MongoCursor<Document> cursor;
+        try {
+            spec = exportService.getSpec(collection);
+            cursor = exportService.open(spec, params, batchSize);
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+            return;
+        } catch (MongoException e) {
+            sendError(exchange, 500, "Erreur lors de l'export : " + e.getMessage());
+            return;
+        }
+
+        boolean gzip = JsonResponseWriter.acceptsGzip(exchange);
+        exchange.getResponseHeaders().add("Content-Type", csv ? "text/csv; charset=utf-8" : "application/x-ndjson; charset=utf-8");
+        exchange.getResponseHeaders().add("Content-Disposition",
+                "attachment; filename=\"" + spec.collection() + (csv ? ".csv" : ".ndjson") + "\"");
+        exchange.getResponseHeaders().add("Vary", "Accept-Encoding");
+        if (gzip) {
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(200, 0);
+
+        String format = csv ? "csv" : "ndjson";
+        long count = 0;
+        try (cursor; Writer writer = new OutputStreamWriter(JsonResponseWriter.wrap(exchange.getResponseBody(), gzip), StandardCharsets.UTF_8)) {
+            if (csv) {
+                writeCsvRow(writer, spec.columns());
+            }
+            while (cursor.hasNext()) {
+                Document document = cursor.next();
+                if (csv) {
+                    writeCsvRow(writer, spec.columns().stream().map(column -> csvValue(document.get(column))).toList());
+                } else {
+                    writer.write(document.toJson(JSON_SETTINGS));
+                    writer.write('\n');
+                }
+                count++;
+            }
+        } catch (MongoException e) {
+            // Les en-têtes sont déjà partis : la réponse est coupée, le client voit un export incomplet
+            System.err.println("Export " + spec.collection() + " interrompu après " + count + " documents : " + e.getMessage());
+        } finally {
+            Metrics.EXPORTED_DOCUMENTS.add(count, spec.collection(), format);
+        }
+    }
+
+    private boolean isCsv(HttpExchange exchange, String format) {
+        if (format != null) {
+            return format.equalsIgnoreCase("csv");
+        }
+        String accept = exchange.getRequestHeaders().getFirst("Accept");
+        return accept != null && accept.contains("text/csv");
+    }
+
+    private void writeCsvRow(Writer writer, List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String value = values.get(i);
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    // Listes séparées par "|", sous-documents en paires clé:valeur (ex : produits d'une commande "id:quantité")
+    private String csvValue(Object value) {
+        return switch (value) {
+            case null -> "";
+            case ObjectId id -> id.toHexString();
+            case Date date -> date.toInstant().toString();
+            case List<?> list -> String.join("|", list.stream().map(this::csvValue).toList());
+            case Document document -> String.join(":", document.values().stream().map(this::csvValue).toList());
+            default -> value.toString();
+        };
+    }
+
+    private Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new LinkedHashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator <= 0) {
+                continue;
+            }
+            String value = URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8);
+            if (!value.isEmpty()) {
+                params.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8), value);
+            }
+        }
+        return params;
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] bytes = gson.toJson(Map.of("error", message)).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package fr.esgi.galapagos.server;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import fr.esgi.galapagos.config.ServerConfig;
+import fr.esgi.galapagos.service.ImportService;
+import fr.esgi.galapagos.service.ImportService.ImportResult;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+// POST /import/{orders|products|boxes} avec un corps NDJSON (éventuellement Content-Encoding: gzip).
+// Le corps est lu ligne à ligne pendant l'insertion : un fichier de plusieurs centaines de milliers de lignes
+// ne tient jamais entièrement en mémoire. Réponse : compteurs et erreurs par numéro de ligne.
+// Un import passe par le contrôle d'admission comme une écriture : en surcharge il est refusé (503).
+public class ImportHandler implements HttpHandler {
+
+    private static final String RETRY_AFTER_SECONDS = "5";
+
+    private final ImportService importService = new ImportService();
+    private final AdmissionController admission;
+    private final Gson gson = new Gson();
+    private final JsonResponseWriter responseWriter = new JsonResponseWriter(gson);
+    private final int chunkSize = ServerConfig.getImportChunkSize();
+    private final int maxLineLength = ServerConfig.getImportMaxLineLength();
+    private final long maxBodyBytes = ServerConfig.getImportMaxBodyBytes();
+
+    public ImportHandler(AdmissionController admission) {
+        this.admission = admission;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
+
+        if (!exchange.getRequestMethod().equalsIgnoreCase("POST")) {
+            exchange.sendResponseHeaders(405, -1);
+            return;
+        }
+
+        AdmissionController.Permit permit = admission.tryAcquireLongRunning(AdmissionController.Priority.WRITE);
+        if (permit == null) {
+            exchange.getResponseHeaders().add("Retry-After", RETRY_AFTER_SECONDS);
+            responseWriter.send(exchange, 503, Map.of("error", "Serveur surchargé, réessayez plus tard"));
+            return;
+        }
+        try {
+            importBody(exchange);
+        } finally {
+            permit.release();
+        }
+    }
+
+    private void importBody(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String collection = path.substring(exchange.getHttpContext().getPath().length()).replaceAll("^/+|/+$", "");
+
+        InputStream body = exchange.getRequestBody();
+        if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            body = new GZIPInputStream(body);
+        }
+        // Limite appliquée au flux décompressé : un petit gzip peut se décompresser en plusieurs Go
+        LimitedInputStream limited = new LimitedInputStream(body, maxBodyBytes);
+
+        ImportResult result;
+        try (Reader reader = new InputStreamReader(limited, StandardCharsets.UTF_8)) {
+            result = importService.importNdjson(collection, reader, chunkSize, maxLineLength);
+        } catch (IllegalArgumentException e) {
+            responseWriter.send(exchange, 400, Map.of("error", e.getMessage()));
+            return;
+        }
+
+        if (limited.exceeded) {
+            // Les lignes lues avant la limite sont insérées : le résultat est renvoyé avec l'erreur
+            responseWriter.send(exchange, 413, Map.of(
+                    "error", "Corps de requête limité à " + maxBodyBytes + " octets, import interrompu",
+                    "result", result));
+            return;
+        }
+        responseWriter.send(exchange, 200, result);
+    }
+
+    // Fin de flux simulée une fois maxBytes octets lus (0 : pas de limite), exceeded indique la coupure
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private final long maxBytes;
+        private long count;
+        private boolean exceeded;
+
+        private LimitedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (isLimitReached()) {
+                return -1;
+            }
+            int value = super.read();
+            if (value >= 0) {
+                count++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (isLimitReached()) {
+                return -1;
+            }
+            if (maxBytes > 0) {
+                length = (int) Math.min(length, maxBytes - count);
+            }
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        // Limite atteinte : un octet de plus est lu pour distinguer un corps de taille exacte d'un corps trop gros
+        private boolean isLimitReached() throws IOException {
+            if (maxBytes <= 0 || count < maxBytes) {
+                return false;
+            }
+            if (!exceeded && super.read() >= 0) {
+                exceeded = true;
+            }
+            return true;
+        }
+    }
+}
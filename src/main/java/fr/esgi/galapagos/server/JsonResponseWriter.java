@@ -0,0 +1,132 @@
+package fr.esgi.galapagos.server;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import fr.esgi.galapagos.metrics.Metrics;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+// Écriture des réponses JSON, compressées en gzip quand le client l'accepte
+public class JsonResponseWriter {
+
+    private static final int BUFFER_SIZE = 8192;
+    // En dessous de cette taille, la compression coûte plus qu'elle ne rapporte
+    private static final int GZIP_MIN_SIZE = 1024;
+
+    private final Gson gson;
+
+    public JsonResponseWriter(Gson gson) {
+        this.gson = gson;
+    }
+
+    // Sérialise directement dans le corps de la réponse (Transfer-Encoding: chunked),
+    // sans passer par une String ni un byte[] intermédiaire
+    public void stream(HttpExchange exchange, int status, Object body) throws IOException {
+        boolean gzip = acceptsGzip(exchange);
+        addHeaders(exchange, gzip);
+        exchange.sendResponseHeaders(status, 0);
+
+        long start = System.nanoTime();
+        try (Writer writer = new OutputStreamWriter(wrap(exchange.getResponseBody(), gzip), StandardCharsets.UTF_8)) {
+            gson.toJson(body, writer);
+        } finally {
+            Metrics.JSON_SERIALIZATION.observe(System.nanoTime() - start, "stream");
+        }
+    }
+
+    public byte[] serialize(Object body) {
+        long start = System.nanoTime();
+        byte[] bytes = gson.toJson(body).getBytes(StandardCharsets.UTF_8);
+        Metrics.JSON_SERIALIZATION.observe(System.nanoTime() - start, "buffer");
+        return bytes;
+    }
+
+    // Réponse déjà sérialisée (ex : GET avec ETag, où le hash du corps doit être connu avant les en-têtes)
+    public void send(HttpExchange exchange, int status, byte[] bytes) throws IOException {
+        boolean gzip = bytes.length >= GZIP_MIN_SIZE && acceptsGzip(exchange);
+        byte[] payload = gzip ? compress(bytes) : bytes;
+
+        addHeaders(exchange, gzip);
+        exchange.sendResponseHeaders(status, payload.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(payload);
+        }
+    }
+
+    public void send(HttpExchange exchange, int status, Object body) throws IOException {
+        send(exchange, status, serialize(body));
+    }
+
+    private void addHeaders(HttpExchange exchange, boolean gzip) {
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        exchange.getResponseHeaders().add("Vary", "Accept-Encoding");
+        if (gzip) {
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+    }
+
+    static OutputStream wrap(OutputStream os, boolean gzip) throws IOException {
+        return gzip ? new GZIPOutputStream(os, BUFFER_SIZE) : new BufferedOutputStream(os, BUFFER_SIZE);
+    }
+
+    private byte[] compress(byte[] bytes) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(bytes);
+        }
+        return buffer.toByteArray();
+    }
+
+    static boolean acceptsGzip(HttpExchange exchange) {
+        return acceptsGzip(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+    }
+
+    // gzip accepté s'il est cité avec un poids q > 0 (1 par défaut), ou à défaut si * l'est.
+    // Un gzip explicitement refusé (gzip;q=0, q=0.0...) l'emporte sur *.
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String encoding : acceptEncoding.split(",")) {
+            String[] parts = encoding.split(";");
+            String name = parts[0].trim().toLowerCase();
+            if (!name.equals("gzip") && !name.equals("x-gzip") && !name.equals("*")) {
+                continue;
+            }
+            double q = quality(parts);
+            if (name.equals("*")) {
+                any = q;
+            } else {
+                gzip = gzip == null ? q : Math.max(gzip, q);
+            }
+        }
+        if (gzip != null) {
+            return gzip > 0;
+        }
+        return any != null && any > 0;
+    }
+
+    // Poids q d'un codage, 1 sans paramètre q, 0 si la valeur est illisible
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 2 && Character.toLowerCase(parameter.charAt(0)) == 'q' && parameter.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,42 @@
+package fr.esgi.galapagos.server;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+// Requête refusée par RequestExecutor (file du pool borné pleine) : réponse 503 immédiate, sur le thread de dispatch,
+// sans passer par le handler. Sans ce filtre le HttpServer fermerait la connexion sans réponse.
+public class OverloadFilter extends Filter {
+
+    private static final String RETRY_AFTER_SECONDS = "5";
+    private static final byte[] BODY = new Gson()
+            .toJson(Map.of("error", "Serveur surchargé, réessayez plus tard"))
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        if (!RequestExecutor.isRejected()) {
+            chain.doFilter(exchange);
+            return;
+        }
+        try (exchange) {
+            exchange.getResponseHeaders().add("Retry-After", RETRY_AFTER_SECONDS);
+            exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+            exchange.getResponseHeaders().add("Connection", "close");
+            exchange.sendResponseHeaders(503, BODY.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(BODY);
+            }
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Réponse 503 aux requêtes refusées par l'executor";
+    }
+}
@@ -0,0 +1,117 @@
+package fr.esgi.galapagos.server;
+
+import fr.esgi.galapagos.config.ServerConfig;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Executor du HttpServer : chaque requête HTTP est traitée hors du thread de dispatch,
+// soit sur un thread virtuel, soit sur un pool borné de threads système.
+public class RequestExecutor implements Executor {
+
+    // Vrai sur le thread de dispatch pendant le traitement d'une requête refusée (voir OverloadFilter)
+    private static final ThreadLocal<Boolean> REJECTED = ThreadLocal.withInitial(() -> false);
+
+    private final String mode;
+    private final ExecutorService delegate;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+
+    private RequestExecutor(String mode, ExecutorService delegate) {
+        this.mode = mode;
+        this.delegate = delegate;
+    }
+
+    public static RequestExecutor fromConfig() {
+        String mode = ServerConfig.getExecutorMode();
+        return switch (mode) {
+            case "virtual" -> virtualThreads();
+            case "platform" -> platformPool(ServerConfig.getPlatformThreads(), ServerConfig.getQueueCapacity());
+            default -> throw new IllegalStateException("Mode d'exécution inconnu : " + mode);
+        };
+    }
+
+    public static RequestExecutor virtualThreads() {
+        return new RequestExecutor("virtual",
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("graphql-", 0).factory()));
+    }
+
+    public static RequestExecutor platformPool(int threads, int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                threads, threads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "graphql-" + counter.getAndIncrement()),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        return new RequestExecutor("platform", pool);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        queued.incrementAndGet();
+        try {
+            delegate.execute(() -> {
+                queued.decrementAndGet();
+                inFlight.incrementAndGet();
+                try {
+                    command.run();
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // File pleine (pool borné) ou arrêt en cours : la requête est traitée sur le thread de dispatch,
+            // uniquement pour répondre 503 (OverloadFilter), sans exécuter le handler
+            queued.decrementAndGet();
+            rejected.incrementAndGet();
+            REJECTED.set(true);
+            try {
+                command.run();
+            } finally {
+                REJECTED.set(false);
+            }
+        }
+    }
+
+    public static boolean isRejected() {
+        return REJECTED.get();
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public void shutdown() {
+        delegate.shutdown();
+        try {
+            if (!delegate.awaitTermination(5, TimeUnit.SECONDS)) {
+                delegate.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            delegate.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
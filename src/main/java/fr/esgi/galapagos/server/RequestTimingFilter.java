@@ -0,0 +1,37 @@
+package fr.esgi.galapagos.server;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import fr.esgi.galapagos.metrics.Metrics;
+
+import java.io.IOException;
+
+// Durée totale de chaque requête HTTP, de la réception à la fin de l'écriture de la réponse
+public class RequestTimingFilter extends Filter {
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            Metrics.HTTP_REQUESTS.observe(System.nanoTime() - start,
+                    exchange.getHttpContext().getPath(),
+                    method(exchange.getRequestMethod()),
+                    String.valueOf(exchange.getResponseCode()));
+        }
+    }
+
+    // Méthode choisie par le client : seules les méthodes connues deviennent des labels
+    private static String method(String method) {
+        return switch (method) {
+            case "GET", "POST", "OPTIONS", "HEAD" -> method;
+            default -> "other";
+        };
+    }
+
+    @Override
+    public String description() {
+        return "Mesure de la durée des requêtes HTTP";
+    }
+}
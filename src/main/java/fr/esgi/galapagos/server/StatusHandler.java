@@ -0,0 +1,67 @@
+package fr.esgi.galapagos.server;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import fr.esgi.galapagos.graphql.DocumentCache;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Expose l'état courant du serveur (requêtes en cours, en attente...) au format JSON
+public class StatusHandler implements HttpHandler {
+
+    private final RequestExecutor executor;
+    private final AdmissionController admission;
+    private final DocumentCache documentCache;
+    private final Gson gson = new Gson();
+
+    public StatusHandler(RequestExecutor executor, AdmissionController admission, DocumentCache documentCache) {
+        this.executor = executor;
+        this.admission = admission;
+        this.documentCache = documentCache;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
+
+        if (!exchange.getRequestMethod().equalsIgnoreCase("GET")) {
+            exchange.sendResponseHeaders(405, -1);
+            return;
+        }
+
+        Map<String, Object> requests = new LinkedHashMap<>();
+        requests.put("executor", executor.getMode());
+        requests.put("inFlight", executor.getInFlight());
+        requests.put("queued", executor.getQueued());
+        requests.put("rejected", executor.getRejected());
+
+        Map<String, Object> admissionStatus = new LinkedHashMap<>();
+        admissionStatus.put("enabled", admission.isEnabled());
+        admissionStatus.put("limit", admission.getLimit());
+        admissionStatus.put("inFlight", admission.getInFlight());
+        admissionStatus.put("rejected", admission.getRejected());
+
+        Map<String, Object> cache = new LinkedHashMap<>();
+        cache.put("size", documentCache.getSize());
+        cache.put("maxSize", documentCache.getMaxSize());
+        cache.put("hits", documentCache.getHits());
+        cache.put("misses", documentCache.getMisses());
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("requests", requests);
+        status.put("admission", admissionStatus);
+        status.put("documentCache", cache);
+
+        byte[] bytes = gson.toJson(status).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
@@ -1,82 +1,111 @@
 package fr.esgi.galapagos.service;
 
 import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.Sorts;
 import fr.esgi.galapagos.config.MongoConnection;
+import fr.esgi.galapagos.helper.PaginationHelper;
+import fr.esgi.galapagos.helper.PaginationHelper.Connection;
+import fr.esgi.galapagos.helper.ProjectionHelper;
 import fr.esgi.galapagos.model.enums.BoxStatus;
 import fr.esgi.galapagos.model.mongodb.Box;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
+import graphql.schema.DataFetchingFieldSelectionSet;
 import org.bson.Document;
 import org.bson.types.ObjectId;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static com.mongodb.client.model.Filters.eq;
 import static com.mongodb.client.model.ReturnDocument.AFTER;
 
 public class BoxService {
 
+    // Champs GraphQL de Box -> champs du document nécessaires pour les résoudre
+    private static final Map<String, List<String>> FIELDS = Map.of(
+            "orderId", List.of("order_id"),
+            "order", List.of("order_id"),
+            "clientId", List.of("client_id"),
+            "client", List.of("client_id"),
+            "number", List.of("number"),
+            "status", List.of("status"),
+            "content", List.of("content")
+    );
+
     private final MongoCollection<Document> boxCollection;
+    private final MongoCollection<Box> boxes;
 
     public BoxService() {
         this.boxCollection = MongoConnection.getDatabase().getCollection("boxes");
+        this.boxes = boxCollection.withDocumentClass(Box.class);
     }
 
-    public List<Box> getBoxes(String id, String orderId, String clientId, String status) {
-        List<Box> boxes = new ArrayList<>();
+    public List<Box> getBoxes(String id, String orderId, String clientId, String status, DataFetchingFieldSelectionSet selectionSet) {
+        List<Box> result = new ArrayList<>();
 
-        Document filter = new Document();
+        Document filter = buildFilter(id, orderId, clientId, status);
+        if (filter == null) {
+            return result;
+        }
 
-        if (id != null && !id.isEmpty()) {
-            try {
-                filter.append("_id", new ObjectId(id));
-            } catch (Exception e) {
-                return new ArrayList<>();
+        try (MongoCursor<Box> cursor = boxes.find(filter)
+                .projection(ProjectionHelper.mongoProjection(selectionSet, FIELDS)).iterator()) {
+            while (cursor.hasNext()) {
+                result.add(cursor.next());
             }
         }
 
-        if (orderId != null && !orderId.isEmpty()) {
-            try {
-                filter.append("order_id", new ObjectId(orderId));
-            } catch (Exception e) {
-                return new ArrayList<>();
-            }
+        return result;
+    }
+
+    // Page de boîtes triées par _id, à partir du curseur after (index order_id_id / client_id_status_id)
+    public Connection<Box> getBoxesConnection(String orderId, String clientId, String status, Integer first, String after,
+                                              DataFetchingFieldSelectionSet selectionSet) {
+        int pageSize = PaginationHelper.pageSize(first);
+        ObjectId afterId = PaginationHelper.decodeObjectIdCursor(after);
+
+        Document filter = buildFilter(null, orderId, clientId, status);
+        if (filter == null) {
+            return PaginationHelper.connection(List.of(), pageSize, afterId != null, box -> box.getId().toHexString());
+        }
+        if (afterId != null) {
+            filter.append("_id", new Document("$gt", afterId));
         }
 
-        if (clientId != null && !clientId.isEmpty()) {
-            try {
+        List<Box> result = boxes.find(filter)
+                .projection(ProjectionHelper.nodeProjection(selectionSet, FIELDS))
+                .sort(Sorts.ascending("_id"))
+                .limit(pageSize + 1)
+                .into(new ArrayList<>());
+        return PaginationHelper.connection(result, pageSize, afterId != null, box -> box.getId().toHexString());
+    }
+
+    // null si un des identifiants n'est pas un ObjectId valide : aucune boîte ne peut correspondre
+    private Document buildFilter(String id, String orderId, String clientId, String status) {
+        Document filter = new Document();
+
+        try {
+            if (id != null && !id.isEmpty()) {
+                filter.append("_id", new ObjectId(id));
+            }
+            if (orderId != null && !orderId.isEmpty()) {
+                filter.append("order_id", new ObjectId(orderId));
+            }
+            if (clientId != null && !clientId.isEmpty()) {
                 filter.append("client_id", new ObjectId(clientId));
-            } catch (Exception e) {
-                return new ArrayList<>();
             }
+        } catch (IllegalArgumentException e) {
+            return null;
         }
 
         if (status != null && !status.isEmpty()) {
             filter.append("status", status.toLowerCase());
         }
-
-        try (MongoCursor<Document> cursor = boxCollection.find(filter).iterator()) {
-            while (cursor.hasNext()) {
-                boxes.add(documentToBox(cursor.next()));
-            }
-        }
-
-        return boxes;
+        return filter;
     }
 
-    private Box documentToBox(Document doc) {
-        Box box = new Box(
-                (ObjectId) doc.get("order_id"),
-                (ObjectId) doc.get("client_id"),
-                doc.getInteger("number"),
-                BoxStatus.valueOf(doc.getString("status").toUpperCase()),
-                doc.getString("content")
-        );
-
-        box.setId((ObjectId) doc.get("_id"));
-        return box;
-    }
     public Box createBox(String orderId, String clientId, int number,
                          String status, String content) {
         try {
@@ -92,8 +121,7 @@ public class BoxService {
                     content
             );
 
-            Document doc = box.toDocument();
-            boxCollection.insertOne(doc);
+            boxes.insertOne(box);
 
             return box;
         } catch (Exception e) {
@@ -134,17 +162,11 @@ public class BoxService {
             FindOneAndUpdateOptions options = new FindOneAndUpdateOptions()
                     .returnDocument(AFTER);
 
-            Document result = boxCollection.findOneAndUpdate(
+            return boxes.findOneAndUpdate(
                     eq("_id", new ObjectId(id)),
                     new Document("$set", update),
                     options
             );
-
-            if (result == null) {
-                return null;
-            }
-
-            return documentToBox(result);
         } catch (Exception e) {
             throw new RuntimeException("Erreur lors de la mise à jour de la boîte: " + e.getMessage());
         }
@@ -164,15 +186,9 @@ public class BoxService {
 
     public Box getBoxById(String id) {
         try {
-            Document doc = boxCollection.find(
+            return boxes.find(
                     eq("_id", new ObjectId(id))
             ).first();
-
-            if (doc == null) {
-                return null;
-            }
-
-            return documentToBox(doc);
         } catch (Exception e) {
             return null;
         }
@@ -3,51 +3,113 @@ package fr.esgi.galapagos.service;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Sorts;
 import com.mongodb.client.model.Updates;
 import fr.esgi.galapagos.config.MongoConnection;
+import fr.esgi.galapagos.helper.PaginationHelper;
+import fr.esgi.galapagos.helper.PaginationHelper.Connection;
+import fr.esgi.galapagos.helper.ProjectionHelper;
+import fr.esgi.galapagos.helper.SearchHelper;
 import fr.esgi.galapagos.model.mongodb.Client;
+import graphql.schema.DataFetchingFieldSelectionSet;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 public class ClientService {
 
+    // Champs GraphQL de Client -> champs du document
+    private static final Map<String, List<String>> FIELDS = Map.of(
+            "name", List.of("name"),
+            "type", List.of("type"),
+            "specialty", List.of("specialty"),
+            "study", List.of("study"),
+            "email", List.of("email"),
+            "orderHistory", List.of("order_history")
+    );
+
     private final MongoCollection<Document> clientCollection;
+    private final MongoCollection<Client> clients;
 
     public ClientService() {
         this.clientCollection = MongoConnection.getDatabase().getCollection("clients");
+        this.clients = clientCollection.withDocumentClass(Client.class);
     }
 
-    public List<Client> getClients(String id, String name) {
-        List<Client> clients = new ArrayList<>();
+    public List<Client> getClients(String id, String name, DataFetchingFieldSelectionSet selectionSet) {
+        List<Client> result = new ArrayList<>();
         Bson filter = new Document();
 
         try {
             if (id != null && !id.isEmpty()) {
                 filter = Filters.eq("_id", new ObjectId(id));
             } else if (name != null && !name.isEmpty()) {
-                filter = Filters.regex("name", Pattern.compile(name, Pattern.CASE_INSENSITIVE));
+                filter = Filters.regex("name", Pattern.compile(Pattern.quote(name), Pattern.CASE_INSENSITIVE));
             }
 
-            try (MongoCursor<Document> cursor = clientCollection.find(filter).iterator()) {
+            try (MongoCursor<Client> cursor = clients.find(filter)
+                    .projection(ProjectionHelper.mongoProjection(selectionSet, FIELDS)).iterator()) {
                 while (cursor.hasNext()) {
-                    clients.add(documentToClient(cursor.next()));
+                    result.add(cursor.next());
                 }
             }
         } catch (IllegalArgumentException e) {
             return new ArrayList<>();
         }
 
-        return clients;
+        return result;
+    }
+
+    public Connection<Client> getClientsConnection(String name, Integer first, String after,
+                                                   DataFetchingFieldSelectionSet selectionSet) {
+        int pageSize = PaginationHelper.pageSize(first);
+        ObjectId afterId = PaginationHelper.decodeObjectIdCursor(after);
+
+        List<Bson> filters = new ArrayList<>();
+        if (name != null && !name.isEmpty()) {
+            filters.add(Filters.regex("name", Pattern.compile(Pattern.quote(name), Pattern.CASE_INSENSITIVE)));
+        }
+        if (afterId != null) {
+            filters.add(Filters.gt("_id", afterId));
+        }
+
+        List<Client> result = clients.find(filters.isEmpty() ? new Document() : Filters.and(filters))
+                .projection(ProjectionHelper.nodeProjection(selectionSet, FIELDS))
+                .sort(Sorts.ascending("_id"))
+                .limit(pageSize + 1)
+                .into(new ArrayList<>());
+        return PaginationHelper.connection(result, pageSize, afterId != null, client -> client.getId().toHexString());
+    }
+
+    // Recherche par mots sur le nom, la spécialité et le domaine d'étude (index texte clients_text), par pertinence
+    public Connection<Client> searchClients(String text, Integer first, String after, DataFetchingFieldSelectionSet selectionSet) {
+        return SearchHelper.search(clientCollection, Client.class, text,
+                ProjectionHelper.nodeProjection(selectionSet, FIELDS), first, after);
+    }
+
+    public Map<ObjectId, Client> getClientsByIds(Collection<ObjectId> ids) {
+        Map<ObjectId, Client> result = new HashMap<>();
+        try (MongoCursor<Client> cursor = clients.find(Filters.in("_id", ids)).iterator()) {
+            while (cursor.hasNext()) {
+                Client client = cursor.next();
+                result.put(client.getId(), client);
+            }
+        }
+        return result;
     }
 
     public Client createClient(String name, String type, String specialty, String study, String email) {
         Client client = new Client(name, type, specialty, study, email);
-        clientCollection.insertOne(client.toDocument());
+        clients.insertOne(client);
         return client;
     }
 
@@ -70,17 +132,17 @@ public class ClientService {
             throw new IllegalArgumentException("Aucune donnée à mettre à jour fournie.");
         }
 
-        Document updatedDoc = clientCollection.findOneAndUpdate(
+        Client updated = clients.findOneAndUpdate(
                 Filters.eq("_id", objectId),
-                Updates.combine(updates)
+                Updates.combine(updates),
+                new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER)
         );
 
-        if (updatedDoc == null) {
+        if (updated == null) {
             throw new RuntimeException("Client introuvable avec l'ID : " + id);
         }
 
-        Document freshDoc = clientCollection.find(Filters.eq("_id", objectId)).first();
-        return documentToClient(freshDoc);
+        return updated;
     }
 
     public boolean deleteClient(String id) {
@@ -91,25 +153,4 @@ public class ClientService {
             return false;
         }
     }
-
-    @SuppressWarnings("unchecked")
-    private Client documentToClient(Document doc) {
-        if (doc == null) return null;
-
-        Client client = new Client(
-                doc.getString("name"),
-                doc.getString("type"),
-                doc.getString("specialty"),
-                doc.getString("study"),
-                doc.getString("email")
-        );
-        client.setId(doc.getObjectId("_id"));
-
-        Object historyObj = doc.get("order_history");
-        if (historyObj instanceof List) {
-            client.setOrderHistory((List<ObjectId>) historyObj);
-        }
-
-        return client;
-    }
 }
\ No newline at end of file
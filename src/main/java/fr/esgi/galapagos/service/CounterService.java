@@ -0,0 +1,58 @@
+package fr.esgi.galapagos.service;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import fr.esgi.galapagos.config.MongoConnection;
+import org.bson.Document;
+
+import java.util.function.IntSupplier;
+
+// Séquences stockées dans la collection counters ({_id: nom, seq: dernière valeur attribuée}).
+// Un $inc sur un seul document est atomique : deux appels concurrents obtiennent toujours des plages disjointes,
+// en un seul aller-retour.
+public class CounterService {
+
+    private final MongoCollection<Document> counters;
+
+    public CounterService() {
+        this.counters = MongoConnection.getDatabase().getCollection("counters");
+    }
+
+    // Réserve count valeurs consécutives et renvoie la première.
+    // currentMax donne la plus grande valeur déjà utilisée quand la séquence n'existe pas encore (données antérieures).
+    public int allocate(String name, int count, IntSupplier currentMax) {
+        Document counter = increment(name, count);
+        if (counter == null) {
+            seed(name, currentMax.getAsInt());
+            counter = increment(name, count);
+        }
+        return counter.getInteger("seq") - count + 1;
+    }
+
+    private Document increment(String name, int count) {
+        return counters.findOneAndUpdate(
+                Filters.eq("_id", name),
+                Updates.inc("seq", count),
+                new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER)
+        );
+    }
+
+    // $max : si un autre appel a créé la séquence entre-temps, sa valeur n'est jamais diminuée
+    private void seed(String name, int value) {
+        try {
+            counters.updateOne(Filters.eq("_id", name), Updates.max("seq", value), new UpdateOptions().upsert(true));
+        } catch (MongoWriteException e) {
+            // Deux upserts simultanés sur le même _id : l'autre a créé le document, il suffit de réappliquer $max
+            if (e.getError().getCategory() != ErrorCategory.DUPLICATE_KEY) {
+                throw e;
+            }
+            counters.updateOne(Filters.eq("_id", name), Updates.max("seq", value));
+        }
+    }
+}
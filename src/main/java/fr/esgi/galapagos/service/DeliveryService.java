@@ -0,0 +1,87 @@
+package fr.esgi.galapagos.service;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import fr.esgi.galapagos.config.MongoConnection;
+import fr.esgi.galapagos.helper.DateHelper;
+import fr.esgi.galapagos.helper.PaginationHelper;
+import fr.esgi.galapagos.helper.PaginationHelper.Connection;
+import fr.esgi.galapagos.helper.ProjectionHelper;
+import fr.esgi.galapagos.model.enums.DeliveryStatus;
+import fr.esgi.galapagos.model.mongodb.Delivery;
+import graphql.schema.DataFetchingFieldSelectionSet;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class DeliveryService {
+
+    // Champs GraphQL de Delivery -> champs du document nécessaires pour les résoudre
+    private static final Map<String, List<String>> FIELDS = Map.ofEntries(
+            Map.entry("orderId", List.of("order_id")),
+            Map.entry("seaplaneId", List.of("seaplane_id")),
+            Map.entry("status", List.of("status")),
+            Map.entry("departureDate", List.of("departure_date")),
+            Map.entry("arrivalDate", List.of("arrival_date")),
+            Map.entry("scheduledDeparture", List.of("scheduled_departure")),
+            Map.entry("delayReason", List.of("delay_reason")),
+            Map.entry("plannedRoute", List.of("planned_route")),
+            Map.entry("currentPort", List.of("current_port")),
+            Map.entry("destinationPort", List.of("destination_port")),
+            Map.entry("totalDistanceKm", List.of("total_distance_km")),
+            Map.entry("estimatedFuelL", List.of("estimated_fuel_l"))
+    );
+
+    private final MongoCollection<Delivery> deliveries;
+
+    public DeliveryService() {
+        this.deliveries = MongoConnection.getDatabase().getCollection("deliveries", Delivery.class);
+    }
+
+    // Page de livraisons triées par _id. from / to (to exclu) portent sur departure_date :
+    // une livraison pas encore partie n'en a pas et sort du résultat dès qu'une borne est donnée.
+    // Avec une borne, triées par (departure_date, _id) pour lire la plage dans l'index departure_date_id,
+    // sauf tant qu'il reste des dates en texte (voir OrderService.getOrdersConnection).
+    public Connection<Delivery> getDeliveriesConnection(String orderId, String seaplaneId, DeliveryStatus status,
+                                                        String from, String to, Integer first, String after,
+                                                        DataFetchingFieldSelectionSet selectionSet) {
+        int pageSize = PaginationHelper.pageSize(first);
+        boolean byDate = (from != null || to != null)
+                && (after != null ? PaginationHelper.isDateCursor(after) : !DateHelper.hasLegacyDates());
+        ObjectId afterId = byDate ? null : PaginationHelper.decodeObjectIdCursor(after);
+        PaginationHelper.DateCursor afterDate = byDate ? PaginationHelper.decodeDateCursor(after) : null;
+        boolean hasPrevious = after != null;
+
+        List<Bson> filters = new ArrayList<>();
+        if (orderId != null) {
+            if (!ObjectId.isValid(orderId)) {
+                return PaginationHelper.connection(List.of(), pageSize, hasPrevious, delivery -> delivery.getId().toHexString());
+            }
+            filters.add(Filters.eq("order_id", new ObjectId(orderId)));
+        }
+        if (seaplaneId != null) filters.add(Filters.eq("seaplane_id", seaplaneId));
+        if (status != null) filters.add(Filters.eq("status", status.name().toLowerCase()));
+        Bson dates = DateHelper.range("departure_date", from, to);
+        if (dates != null) filters.add(dates);
+        if (afterId != null) filters.add(Filters.gt("_id", afterId));
+        if (afterDate != null) filters.add(PaginationHelper.after("departure_date", afterDate));
+
+        List<Delivery> result = deliveries.find(filters.isEmpty() ? new Document() : Filters.and(filters))
+                .projection(byDate
+                        ? ProjectionHelper.nodeProjection(selectionSet, FIELDS, "departure_date")
+                        : ProjectionHelper.nodeProjection(selectionSet, FIELDS))
+                .sort(byDate ? Sorts.ascending("departure_date", "_id") : Sorts.ascending("_id"))
+                .limit(pageSize + 1)
+                .into(new ArrayList<>());
+        if (byDate) {
+            return PaginationHelper.connection(result, pageSize, hasPrevious,
+                    delivery -> PaginationHelper.dateCursorValue(delivery.getDepartureDate(), delivery.getId()));
+        }
+        return PaginationHelper.connection(result, pageSize, hasPrevious, delivery -> delivery.getId().toHexString());
+    }
+}
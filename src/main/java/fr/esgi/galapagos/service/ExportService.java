@@ -0,0 +1,92 @@
+package fr.esgi.galapagos.service;
+
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import fr.esgi.galapagos.config.MongoConnection;
+import fr.esgi.galapagos.helper.DateHelper;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Export complet d'une collection (commandes, boîtes, livraisons) pour les partenaires.
+// Le curseur est lu par lots de batchSize documents : la mémoire utilisée ne dépend pas de la taille de l'export.
+public class ExportService {
+
+    // Collection exportable : filtres acceptés (paramètre -> champ ObjectId ou texte), champ de date et colonnes CSV
+    public record ExportSpec(String collection, List<String> idFilters, String dateField, List<String> columns) {}
+
+    private static final Map<String, ExportSpec> SPECS = Map.of(
+            "orders", new ExportSpec("orders", List.of("client_id"), "order_date", List.of(
+                    "_id", "client_id", "order_date", "status", "priority", "delivery_port",
+                    "products", "box_count", "boxes_delivered", "total_weight_kg")),
+            "boxes", new ExportSpec("boxes", List.of("order_id", "client_id"), null, List.of(
+                    "_id", "order_id", "client_id", "number", "status", "content")),
+            "deliveries", new ExportSpec("deliveries", List.of("order_id"), "departure_date", List.of(
+                    "_id", "order_id", "seaplane_id", "status", "scheduled_departure", "departure_date", "arrival_date",
+                    "current_port", "destination_port", "planned_route", "transported_boxes",
+                    "total_distance_km", "estimated_fuel_l", "delay_reason"))
+    );
+
+    private final MongoDatabase database;
+
+    public ExportService() {
+        this.database = MongoConnection.getDatabase();
+    }
+
+    public ExportSpec getSpec(String collection) {
+        ExportSpec spec = SPECS.get(collection);
+        if (spec == null) {
+            throw new IllegalArgumentException("Collection non exportable : " + collection + " (orders, boxes ou deliveries)");
+        }
+        return spec;
+    }
+
+    // Paramètres acceptés : status, les champs de spec.idFilters(), seaplane_id pour les livraisons,
+    // from / to (date ou date-heure ISO, to exclu) sur spec.dateField(), parcours de l'index de ce champ
+    public MongoCursor<Document> open(ExportSpec spec, Map<String, String> params, int batchSize) {
+        return database.getCollection(spec.collection())
+                .find(buildFilter(spec, params))
+                .projection(Projections.include(spec.columns()))
+                .batchSize(batchSize)
+                .iterator();
+    }
+
+    private Bson buildFilter(ExportSpec spec, Map<String, String> params) {
+        List<Bson> filters = new ArrayList<>();
+        String from = null;
+        String to = null;
+
+        for (Map.Entry<String, String> param : params.entrySet()) {
+            String name = param.getKey();
+            String value = param.getValue();
+            if (name.equals("status")) {
+                filters.add(Filters.eq("status", value.toLowerCase()));
+            } else if (spec.idFilters().contains(name)) {
+                if (!ObjectId.isValid(value)) {
+                    throw new IllegalArgumentException("Identifiant invalide pour " + name + " : " + value);
+                }
+                filters.add(Filters.eq(name, new ObjectId(value)));
+            } else if (name.equals("seaplane_id") && spec.collection().equals("deliveries")) {
+                filters.add(Filters.eq("seaplane_id", value));
+            } else if (name.equals("from") || name.equals("to")) {
+                if (spec.dateField() == null) {
+                    throw new IllegalArgumentException("Pas de filtre par date pour " + spec.collection());
+                }
+                if (name.equals("from")) from = value;
+                else to = value;
+            } else if (!name.equals("format")) {
+                throw new IllegalArgumentException("Filtre inconnu pour " + spec.collection() + " : " + name);
+            }
+        }
+        if (from != null || to != null) {
+            filters.add(DateHelper.range(spec.dateField(), from, to));
+        }
+        return filters.isEmpty() ? new Document() : Filters.and(filters);
+    }
+}
@@ -0,0 +1,345 @@
+package fr.esgi.galapagos.service;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.WriteModel;
+import fr.esgi.galapagos.config.MongoConnection;
+import fr.esgi.galapagos.helper.DateHelper;
+import fr.esgi.galapagos.metrics.Metrics;
+import fr.esgi.galapagos.model.enums.BoxStatus;
+import fr.esgi.galapagos.model.enums.OrderStatus;
+import fr.esgi.galapagos.model.mongodb.Box;
+import fr.esgi.galapagos.model.mongodb.Order;
+import fr.esgi.galapagos.model.mongodb.Product;
+import org.bson.types.ObjectId;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Import en masse de commandes, produits et boîtes depuis du NDJSON (un document par ligne, mêmes noms de champs
+// qu'en base et que /export). Les lignes sont lues et validées une par une, puis insérées par lots avec un
+// bulkWrite non ordonné : une ligne en erreur (doublon d'_id...) n'empêche pas l'insertion des autres.
+public class ImportService {
+
+    // Au-delà, les erreurs sont seulement comptées : la réponse reste bornée même pour un fichier entièrement invalide
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    public record RowError(long line, String message) {}
+
+    public record ImportResult(String collection, long received, long inserted, long failed,
+                               List<RowError> errors, boolean errorsTruncated) {}
+
+    private final MongoDatabase database;
+
+    public ImportService() {
+        this.database = MongoConnection.getDatabase();
+    }
+
+    // maxLineLength : au-delà, la ligne est ignorée (sans être gardée en mémoire) et rapportée en erreur
+    public ImportResult importNdjson(String collection, Reader reader, int chunkSize, int maxLineLength) throws IOException {
+        LineReader lines = new LineReader(reader, maxLineLength);
+        return switch (collection) {
+            case "orders" -> run(collection, database.getCollection("orders", Order.class), ImportService::parseOrder, lines, chunkSize);
+            case "products" -> run(collection, database.getCollection("products", Product.class), ImportService::parseProduct, lines, chunkSize);
+            case "boxes" -> run(collection, database.getCollection("boxes", Box.class), ImportService::parseBox, lines, chunkSize);
+            default -> throw new IllegalArgumentException("Collection non importable : " + collection + " (orders, products ou boxes)");
+        };
+    }
+
+    private <T> ImportResult run(String name, MongoCollection<T> collection, Function<JsonObject, T> parser,
+                                 LineReader reader, int chunkSize) throws IOException {
+        Progress progress = new Progress();
+        List<WriteModel<T>> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (reader.oversized) {
+                progress.received++;
+                progress.fail(lineNumber, "Ligne trop longue (plus de " + reader.maxLength + " caractères)");
+                continue;
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            progress.received++;
+            try {
+                JsonElement row = JsonParser.parseString(line);
+                if (!row.isJsonObject()) {
+                    throw new IllegalArgumentException("Un objet JSON est attendu");
+                }
+                chunk.add(new InsertOneModel<>(parser.apply(row.getAsJsonObject())));
+                chunkLines.add(lineNumber);
+            } catch (JsonParseException e) {
+                progress.fail(lineNumber, "JSON invalide");
+            } catch (IllegalArgumentException e) {
+                progress.fail(lineNumber, e.getMessage());
+            }
+
+            if (chunk.size() >= chunkSize) {
+                flush(collection, chunk, chunkLines, progress);
+            }
+        }
+        flush(collection, chunk, chunkLines, progress);
+
+        Metrics.IMPORTED_DOCUMENTS.add(progress.inserted, name, "inserted");
+        Metrics.IMPORTED_DOCUMENTS.add(progress.failed, name, "failed");
+        return new ImportResult(name, progress.received, progress.inserted, progress.failed,
+                progress.errors, progress.failed > progress.errors.size());
+    }
+
+    private <T> void flush(MongoCollection<T> collection, List<WriteModel<T>> chunk, List<Long> chunkLines, Progress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            progress.inserted += collection.bulkWrite(chunk, new BulkWriteOptions().ordered(false)).getInsertedCount();
+        } catch (MongoBulkWriteException e) {
+            // Les autres documents du lot sont insérés : seules les erreurs sont rapportées, ramenées à leur ligne
+            progress.inserted += e.getWriteResult().getInsertedCount();
+            for (BulkWriteError error : e.getWriteErrors()) {
+                progress.fail(chunkLines.get(error.getIndex()), error.getMessage());
+            }
+        } catch (MongoException e) {
+            for (Long line : chunkLines) {
+                progress.fail(line, "Lot non inséré : " + e.getMessage());
+            }
+        }
+        chunk.clear();
+        chunkLines.clear();
+    }
+
+    // Lecture ligne à ligne avec une longueur maximale : contrairement à BufferedReader.readLine, un corps
+    // sans retour à la ligne (ou un gzip qui se décompresse en une seule ligne) n'est jamais gardé en entier
+    static final class LineReader {
+
+        private final Reader reader;
+        private final int maxLength;
+        private final StringBuilder buffer = new StringBuilder();
+        private final char[] chunk = new char[8192];
+        private int position;
+        private int length;
+        boolean oversized;
+
+        LineReader(Reader reader, int maxLength) {
+            this.reader = reader;
+            this.maxLength = maxLength;
+        }
+
+        // null en fin de flux. Une ligne trop longue est lue jusqu'au bout sans être conservée : oversized
+        String readLine() throws IOException {
+            buffer.setLength(0);
+            oversized = false;
+            boolean read = false;
+            while (true) {
+                if (position == length) {
+                    length = reader.read(chunk);
+                    position = 0;
+                    if (length <= 0) {
+                        length = 0;
+                        return read ? line() : null;
+                    }
+                }
+                read = true;
+                int start = position;
+                while (position < length && chunk[position] != '\n') {
+                    position++;
+                }
+                append(start, position);
+                if (position < length) {
+                    position++;
+                    return line();
+                }
+            }
+        }
+
+        // Un caractère de plus que maxLength est gardé : le \r d'une fin de ligne CRLF ne compte pas dans la longueur
+        private void append(int start, int end) {
+            int count = (int) Math.min(end - start, maxLength + 1L - buffer.length());
+            if (count < end - start) {
+                oversized = true;
+            }
+            if (count > 0 && !oversized) {
+                buffer.append(chunk, start, count);
+            }
+        }
+
+        private String line() {
+            if (oversized) {
+                buffer.setLength(0);
+                return "";
+            }
+            int end = buffer.length();
+            if (end > 0 && buffer.charAt(end - 1) == '\r') {
+                buffer.setLength(end - 1);
+            }
+            if (buffer.length() > maxLength) {
+                oversized = true;
+                buffer.setLength(0);
+                return "";
+            }
+            return buffer.toString();
+        }
+    }
+
+    private static final class Progress {
+        private long received;
+        private long inserted;
+        private long failed;
+        private final List<RowError> errors = new ArrayList<>();
+
+        private void fail(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(line, message));
+            }
+        }
+    }
+
+    private static Order parseOrder(JsonObject row) {
+        List<Order.OrderedProduct> products = new ArrayList<>();
+        JsonArray items = requireArray(row, "products");
+        for (JsonElement item : items) {
+            if (!item.isJsonObject()) {
+                throw new IllegalArgumentException("Chaque élément de products doit être un objet {product_id, quantity}");
+            }
+            JsonObject product = item.getAsJsonObject();
+            int quantity = requireInt(product, "quantity");
+            if (quantity <= 0) {
+                throw new IllegalArgumentException("La quantité d'un produit doit être positive");
+            }
+            products.add(new Order.OrderedProduct(requireObjectId(product, "product_id"), quantity));
+        }
+        if (products.isEmpty()) {
+            throw new IllegalArgumentException("Une commande doit contenir au moins un produit");
+        }
+
+        String status = optionalString(row, "status");
+        Instant orderDate = DateHelper.parseInstant("order_date", optionalString(row, "order_date"));
+        Order order = new Order(
+                requireObjectId(row, "client_id"),
+                orderDate != null ? orderDate : Instant.now(),
+                status != null ? parseEnum(OrderStatus.class, "status", status) : OrderStatus.PENDING,
+                requireString(row, "priority"),
+                requireString(row, "delivery_port"),
+                products,
+                requireInt(row, "box_count"),
+                requireDouble(row, "total_weight_kg")
+        );
+        if (row.has("boxes_delivered")) {
+            order.setBoxesDelivered(requireInt(row, "boxes_delivered"));
+        }
+        keepId(row, order::setId);
+        return order;
+    }
+
+    private static Product parseProduct(JsonObject row) {
+        int stock = requireInt(row, "stock_available");
+        if (stock < 0) {
+            throw new IllegalArgumentException("Le stock ne peut pas être négatif");
+        }
+        Product product = new Product(
+                requireString(row, "name"),
+                optionalString(row, "description"),
+                stock,
+                requireDouble(row, "weight_kg"),
+                requireDouble(row, "unit_price")
+        );
+        keepId(row, product::setId);
+        return product;
+    }
+
+    private static Box parseBox(JsonObject row) {
+        String status = optionalString(row, "status");
+        Box box = new Box(
+                requireObjectId(row, "order_id"),
+                requireObjectId(row, "client_id"),
+                requireInt(row, "number"),
+                status != null ? parseEnum(BoxStatus.class, "status", status) : BoxStatus.PENDING,
+                requireString(row, "content")
+        );
+        keepId(row, box::setId);
+        return box;
+    }
+
+    // _id fourni (ex : réimport d'un /export) : conservé, un doublon est alors signalé sur sa ligne
+    private static void keepId(JsonObject row, Consumer<ObjectId> setter) {
+        if (row.has("_id")) {
+            setter.accept(requireObjectId(row, "_id"));
+        }
+    }
+
+    private static JsonElement require(JsonObject row, String field) {
+        JsonElement value = row.get(field);
+        if (value == null || value.isJsonNull()) {
+            throw new IllegalArgumentException("Champ obligatoire manquant : " + field);
+        }
+        return value;
+    }
+
+    private static String requireString(JsonObject row, String field) {
+        JsonElement value = require(row, field);
+        if (!value.isJsonPrimitive() || !value.getAsJsonPrimitive().isString() || value.getAsString().isBlank()) {
+            throw new IllegalArgumentException("Le champ " + field + " doit être un texte non vide");
+        }
+        return value.getAsString();
+    }
+
+    private static String optionalString(JsonObject row, String field) {
+        JsonElement value = row.get(field);
+        return value == null || value.isJsonNull() ? null : requireString(row, field);
+    }
+
+    private static ObjectId requireObjectId(JsonObject row, String field) {
+        String value = requireString(row, field);
+        if (!ObjectId.isValid(value)) {
+            throw new IllegalArgumentException("Identifiant invalide pour " + field + " : " + value);
+        }
+        return new ObjectId(value);
+    }
+
+    private static int requireInt(JsonObject row, String field) {
+        JsonElement value = require(row, field);
+        try {
+            if (value.isJsonPrimitive() && value.getAsJsonPrimitive().isNumber()) {
+                return value.getAsBigDecimal().intValueExact();
+            }
+        } catch (ArithmeticException e) {
+            // nombre décimal ou hors limites : même message que pour un mauvais type
+        }
+        throw new IllegalArgumentException("Le champ " + field + " doit être un entier");
+    }
+
+    private static double requireDouble(JsonObject row, String field) {
+        JsonElement value = require(row, field);
+        if (!value.isJsonPrimitive() || !value.getAsJsonPrimitive().isNumber()) {
+            throw new IllegalArgumentException("Le champ " + field + " doit être un nombre");
+        }
+        return value.getAsDouble();
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String field, String value) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Valeur invalide pour " + field + " : " + value);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package fr.esgi.galapagos.service;
 
 import fr.esgi.galapagos.config.Neo4jConnection;
+import fr.esgi.galapagos.metrics.Neo4jMetrics;
 import fr.esgi.galapagos.model.neo4j.Island;
 import org.neo4j.driver.Driver;
 import org.neo4j.driver.Result;
@@ -21,7 +22,7 @@ public class IslandService {
 
     public List<Island> getIslands(Integer id, String name) {
         try (Session session = driver.session()) {
-            return session.executeRead(tx -> {
+            return Neo4jMetrics.executeRead(session, "islands.get", tx -> {
                 StringBuilder query = new StringBuilder("MATCH (i:Island) ");
                 Map<String, Object> params = new HashMap<>();
 
@@ -0,0 +1,154 @@
+package fr.esgi.galapagos.service;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Projections;
+import fr.esgi.galapagos.model.enums.LockerStatus;
+import fr.esgi.galapagos.model.mongodb.Locker;
+import org.bson.types.ObjectId;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Index en mémoire de l'état des casiers de chaque port, pour attribuer un casier libre sans parcourir la collection.
+// L'état de chaque casier tient sur 3 bits, 21 casiers par AtomicLong (indice = numéro - 1) : une réservation
+// est un compareAndSet EMPTY -> RESERVED sur un seul mot, sans verrou. La base reste la référence : l'appelant
+// confirme par une mise à jour conditionnelle et resynchronise le casier si elle échoue (index périmé).
+public class LockerAllocator {
+
+    private static final int BITS = 3;
+    private static final int SLOTS = 21;
+    private static final long MASK = 0b111;
+
+    // 0 : pas de casier avec ce numéro (jamais créé ou supprimé)
+    private static final int ABSENT = 0;
+
+    public record Claim(int portId, int number, ObjectId lockerId) {}
+
+    private final Map<Integer, PortLockers> ports = new ConcurrentHashMap<>();
+
+    // Chargement de tous les casiers au démarrage (3 champs par document)
+    public void rebuild(MongoCollection<Locker> lockers) {
+        ports.clear();
+        for (Locker locker : lockers.find().projection(Projections.include("port_id", "number", "status"))) {
+            set(locker.getPortId(), locker.getNumber(), locker.getId(), locker.getStatus());
+        }
+    }
+
+    // Réserve en mémoire un casier libre du port, null s'il n'y en a aucun
+    public Claim claim(int portId) {
+        PortLockers port = ports.get(portId);
+        if (port == null || port.free.get() <= 0) {
+            return null;
+        }
+
+        Segment[] segments = port.segments;
+        int start = Math.floorMod(port.hint.get(), Math.max(segments.length, 1));
+        for (int i = 0; i < segments.length; i++) {
+            int index = (start + i) % segments.length;
+            Segment segment = segments[index];
+            while (true) {
+                long word = segment.states.get();
+                int slot = findEmpty(word);
+                if (slot < 0) {
+                    break;
+                }
+                if (segment.states.compareAndSet(word, with(word, slot, code(LockerStatus.RESERVED)))) {
+                    port.free.decrementAndGet();
+                    port.hint.set(index);
+                    return new Claim(portId, index * SLOTS + slot + 1, segment.ids[slot]);
+                }
+            }
+        }
+        return null;
+    }
+
+    public void set(int portId, int number, ObjectId lockerId, LockerStatus status) {
+        update(portId, number, lockerId, status == null ? ABSENT : code(status));
+    }
+
+    public void remove(int portId, int number) {
+        update(portId, number, null, ABSENT);
+    }
+
+    private void update(int portId, int number, ObjectId lockerId, int code) {
+        if (number < 1) {
+            return;
+        }
+        PortLockers port = ports.computeIfAbsent(portId, k -> new PortLockers());
+        Segment segment = port.segment((number - 1) / SLOTS);
+        int slot = (number - 1) % SLOTS;
+        if (lockerId != null) {
+            // Écrit avant le CAS sur l'état, donc visible par claim() dès que l'état est lu
+            segment.ids[slot] = lockerId;
+        }
+
+        while (true) {
+            long word = segment.states.get();
+            int previous = (int) ((word >>> (slot * BITS)) & MASK);
+            if (segment.states.compareAndSet(word, with(word, slot, code))) {
+                int empty = code(LockerStatus.EMPTY);
+                if (previous != empty && code == empty) {
+                    port.free.incrementAndGet();
+                } else if (previous == empty && code != empty) {
+                    port.free.decrementAndGet();
+                }
+                return;
+            }
+        }
+    }
+
+    private static int findEmpty(long word) {
+        int empty = code(LockerStatus.EMPTY);
+        for (int slot = 0; slot < SLOTS; slot++) {
+            if (((word >>> (slot * BITS)) & MASK) == empty) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private static long with(long word, int slot, int code) {
+        int shift = slot * BITS;
+        return (word & ~(MASK << shift)) | ((long) code << shift);
+    }
+
+    private static int code(LockerStatus status) {
+        return status.ordinal() + 1;
+    }
+
+    private static final class PortLockers {
+
+        private volatile Segment[] segments = new Segment[0];
+        private final AtomicInteger free = new AtomicInteger();
+        // Dernier segment où un casier a été trouvé : la recherche suivante commence là
+        private final AtomicInteger hint = new AtomicInteger();
+
+        private Segment segment(int index) {
+            Segment[] current = segments;
+            if (index < current.length) {
+                return current[index];
+            }
+            synchronized (this) {
+                current = segments;
+                if (index >= current.length) {
+                    // Les segments existants sont conservés : un CAS en cours sur l'un d'eux reste valable
+                    Segment[] grown = Arrays.copyOf(current, Math.max(index + 1, current.length * 2));
+                    for (int i = current.length; i < grown.length; i++) {
+                        grown[i] = new Segment();
+                    }
+                    segments = grown;
+                    current = grown;
+                }
+                return current[index];
+            }
+        }
+    }
+
+    private static final class Segment {
+        private final AtomicLong states = new AtomicLong();
+        private final ObjectId[] ids = new ObjectId[SLOTS];
+    }
+}
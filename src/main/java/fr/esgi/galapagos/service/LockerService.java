@@ -2,11 +2,19 @@ package fr.esgi.galapagos.service;
 
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
 import com.mongodb.client.model.Sorts;
 import com.mongodb.client.model.Updates;
 import fr.esgi.galapagos.config.MongoConnection;
 import fr.esgi.galapagos.config.Neo4jConnection;
+import fr.esgi.galapagos.event.DomainEvents;
+import fr.esgi.galapagos.helper.PaginationHelper;
+import fr.esgi.galapagos.helper.PaginationHelper.Connection;
+import fr.esgi.galapagos.metrics.Neo4jMetrics;
 import fr.esgi.galapagos.model.enums.LockerStatus;
 import fr.esgi.galapagos.model.mongodb.Locker;
 import org.bson.Document;
@@ -16,22 +24,29 @@ import org.neo4j.driver.Driver;
 import org.neo4j.driver.Session;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 
 public class LockerService {
 
+    private static final int MAX_LOCKERS_PER_CALL = 1000;
+    private static final int MAX_RESERVE_ATTEMPTS = 5;
+
     private final MongoDatabase mongoDatabase;
     private final Driver neo4jDriver;
+    private final CounterService counterService = new CounterService();
+    private final LockerAllocator allocator = new LockerAllocator();
 
     public LockerService() {
         this.mongoDatabase = MongoConnection.getDatabase();
         this.neo4jDriver = Neo4jConnection.getDriver();
+        allocator.rebuild(mongoDatabase.getCollection("lockers", Locker.class));
     }
 
     public List<Locker> getLockers(Integer portId, String status) {
-        MongoCollection<Document> collection = mongoDatabase.getCollection("lockers");
+        MongoCollection<Locker> collection = mongoDatabase.getCollection("lockers", Locker.class);
         List<Locker> lockers = new ArrayList<>();
 
         List<Bson> filters = new ArrayList<>();
@@ -44,10 +59,68 @@ public class LockerService {
 
         Bson finalFilter = filters.isEmpty() ? new Document() : Filters.and(filters);
 
-        for (Document doc : collection.find(finalFilter)) {
-            lockers.add(mapDocumentToLocker(doc));
+        return collection.find(finalFilter).into(lockers);
+    }
+
+    // Page de casiers triés par (port_id, number), clé de l'index unique port_id_number : curseur "port_id:number"
+    public Connection<Locker> getLockersConnection(Integer portId, String status, Integer first, String after) {
+        MongoCollection<Locker> collection = mongoDatabase.getCollection("lockers", Locker.class);
+        int pageSize = PaginationHelper.pageSize(first);
+        String cursor = PaginationHelper.decodeCursor(after);
+
+        List<Bson> filters = new ArrayList<>();
+        if (portId != null) {
+            filters.add(Filters.eq("port_id", portId));
         }
-        return lockers;
+        if (status != null) {
+            filters.add(Filters.eq("status", status.toLowerCase()));
+        }
+        if (cursor != null) {
+            String[] key = cursor.split(":");
+            int afterPort;
+            int afterNumber;
+            try {
+                afterPort = Integer.parseInt(key[0]);
+                afterNumber = Integer.parseInt(key[1]);
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Curseur invalide : " + after);
+            }
+            filters.add(Filters.or(
+                    Filters.gt("port_id", afterPort),
+                    Filters.and(Filters.eq("port_id", afterPort), Filters.gt("number", afterNumber))
+            ));
+        }
+
+        List<Locker> result = collection.find(filters.isEmpty() ? new Document() : Filters.and(filters))
+                .sort(Sorts.ascending("port_id", "number"))
+                .limit(pageSize + 1)
+                .into(new ArrayList<>());
+        return PaginationHelper.connection(result, pageSize, cursor != null,
+                locker -> locker.getPortId() + ":" + locker.getNumber());
+    }
+
+    // Chargement groupé pour le DataLoader : une seule requête port_id $in [...] pour tous les ports demandés
+    public Map<Integer, List<Locker>> getLockersByPortIds(Collection<Integer> portIds) {
+        MongoCollection<Locker> collection = mongoDatabase.getCollection("lockers", Locker.class);
+        Map<Integer, List<Locker>> lockersByPort = new HashMap<>();
+
+        for (Locker locker : collection.find(Filters.in("port_id", portIds)).sort(Sorts.ascending("port_id", "number"))) {
+            lockersByPort.computeIfAbsent(locker.getPortId(), k -> new ArrayList<>()).add(locker);
+        }
+        return lockersByPort;
+    }
+
+    public Map<Integer, Integer> countLockersByPortIds(Collection<Integer> portIds) {
+        MongoCollection<Document> collection = mongoDatabase.getCollection("lockers");
+        Map<Integer, Integer> counts = new HashMap<>();
+
+        for (Document doc : collection.aggregate(List.of(
+                Aggregates.match(Filters.in("port_id", portIds)),
+                Aggregates.group("$port_id", Accumulators.sum("count", 1))
+        ))) {
+            counts.put(doc.getInteger("_id"), doc.getInteger("count"));
+        }
+        return counts;
     }
 
     public int countLockersByPortId(int portId) {
@@ -57,7 +130,7 @@ public class LockerService {
 
     private void updatePortLockerCount(int portId, int delta) {
         try (Session session = neo4jDriver.session()) {
-            session.executeWrite(tx -> {
+            Neo4jMetrics.executeWrite(session, "ports.updateLockerCount", tx -> {
                 String query = "MATCH (p:Port {id: $id}) SET p.nbLockers = coalesce(p.nbLockers, 0) + $delta";
                 tx.run(query, Map.of("id", portId, "delta", delta));
                 return null;
@@ -66,27 +139,43 @@ public class LockerService {
     }
 
     public Locker addLocker(int portId) {
-        MongoCollection<Document> collection = mongoDatabase.getCollection("lockers");
+        return addLockers(portId, 1).getFirst();
+    }
 
-        Document lastLocker = collection.find(Filters.eq("port_id", portId))
-                .sort(Sorts.descending("number"))
-                .first();
+    // Numéros attribués par la séquence du port (un $inc pour tout le lot), puis un insertMany et une seule écriture Neo4j.
+    // L'index unique (port_id, number) protège contre un doublon si la séquence était réinitialisée à la main.
+    public List<Locker> addLockers(int portId, int count) {
+        if (count < 1 || count > MAX_LOCKERS_PER_CALL) {
+            throw new IllegalArgumentException("Le nombre de casiers doit être compris entre 1 et " + MAX_LOCKERS_PER_CALL + ".");
+        }
 
-        int nextNumber = (lastLocker != null) ? lastLocker.getInteger("number") + 1 : 1;
+        int firstNumber = counterService.allocate("locker_number:" + portId, count, () -> lastLockerNumber(portId));
 
-        Locker locker = new Locker(portId, nextNumber);
-        collection.insertOne(locker.toDocument());
+        List<Locker> lockers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lockers.add(new Locker(portId, firstNumber + i));
+        }
+        mongoDatabase.getCollection("lockers", Locker.class).insertMany(lockers);
+        for (Locker locker : lockers) {
+            allocator.set(portId, locker.getNumber(), locker.getId(), LockerStatus.EMPTY);
+        }
 
-        updatePortLockerCount(portId, 1);
+        updatePortLockerCount(portId, count);
 
-        return locker;
+        return lockers;
     }
 
-    public Locker updateLockerStatus(String id, String newStatusStr, String maintenanceReason) {
-        Document doc = findLockerDocumentById(id);
+    // Plus grand numéro existant, lu une seule fois à la création de la séquence du port (index port_id_number)
+    private int lastLockerNumber(int portId) {
+        Document lastLocker = mongoDatabase.getCollection("lockers").find(Filters.eq("port_id", portId))
+                .sort(Sorts.descending("number"))
+                .projection(new Document("number", 1))
+                .first();
+        return lastLocker != null ? lastLocker.getInteger("number") : 0;
+    }
 
-        String currentStatusStr = doc.getString("status").toUpperCase();
-        LockerStatus currentStatus = LockerStatus.valueOf(currentStatusStr);
+    public Locker updateLockerStatus(String id, String newStatusStr, String maintenanceReason) {
+        LockerStatus currentStatus = findLockerById(id).getStatus();
 
         if (currentStatus != LockerStatus.EMPTY && currentStatus != LockerStatus.MAINTENANCE) {
             throw new RuntimeException("Impossible de modifier le statut : le casier est actuellement utilisé ou réservé.");
@@ -112,66 +201,124 @@ public class LockerService {
             updates.add(Updates.unset("maintenance_reason"));
         }
 
-        MongoCollection<Document> collection = mongoDatabase.getCollection("lockers");
-        ObjectId objId = new ObjectId(id);
-        collection.updateOne(Filters.eq("_id", objId), Updates.combine(updates));
+        // Condition sur le statut : un casier réservé entre la lecture et l'écriture n'est pas écrasé
+        MongoCollection<Locker> collection = mongoDatabase.getCollection("lockers", Locker.class);
+        Locker locker = collection.findOneAndUpdate(
+                Filters.and(Filters.eq("_id", new ObjectId(id)), Filters.in("status", "empty", "maintenance")),
+                Updates.combine(updates),
+                new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER)
+        );
+        if (locker == null) {
+            throw new RuntimeException("Impossible de modifier le statut : le casier est actuellement utilisé ou réservé.");
+        }
+        allocator.set(locker.getPortId(), locker.getNumber(), locker.getId(), locker.getStatus());
+        DomainEvents.LOCKER_STATUS_CHANGED.publish(locker);
+        return locker;
+    }
+
+    // Attribution d'un casier libre à une commande : réservation en mémoire (LockerAllocator),
+    // confirmée par une mise à jour conditionnelle sur status = empty. Un casier ne peut donc jamais être réservé deux fois.
+    public Locker reserveLocker(int portId, String orderId) {
+        if (!ObjectId.isValid(orderId)) {
+            throw new IllegalArgumentException("Identifiant de commande invalide : " + orderId);
+        }
+        MongoCollection<Locker> collection = mongoDatabase.getCollection("lockers", Locker.class);
+        Bson reservation = Updates.combine(
+                Updates.set("status", "reserved"),
+                Updates.set("reserved_for_order_id", new ObjectId(orderId))
+        );
+
+        for (int attempt = 0; attempt < MAX_RESERVE_ATTEMPTS; attempt++) {
+            LockerAllocator.Claim claim = allocator.claim(portId);
+            if (claim == null) {
+                break;
+            }
+
+            Locker locker;
+            try {
+                locker = collection.findOneAndUpdate(
+                        Filters.and(Filters.eq("_id", claim.lockerId()), Filters.eq("status", "empty")),
+                        reservation,
+                        new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER)
+                );
+            } catch (RuntimeException e) {
+                // Confirmation impossible (timeout, pool épuisé...) : le casier est rendu à l'index
+                allocator.set(portId, claim.number(), claim.lockerId(), LockerStatus.EMPTY);
+                throw e;
+            }
+            if (locker != null) {
+                DomainEvents.LOCKER_STATUS_CHANGED.publish(locker);
+                return locker;
+            }
+            // Casier modifié sans passer par ce serveur : l'index est corrigé avec l'état réel avant de réessayer
+            Locker current = collection.find(Filters.eq("_id", claim.lockerId())).first();
+            if (current == null) {
+                allocator.remove(portId, claim.number());
+            } else {
+                allocator.set(portId, claim.number(), current.getId(), current.getStatus());
+            }
+        }
+
+        // L'index ne voit que les changements faits par ce serveur : un casier libéré par une autre instance,
+        // par /import ou à la main n'y apparaît pas. Dernière tentative directement en base (index port_id_status_number).
+        Locker locker = collection.findOneAndUpdate(
+                Filters.and(Filters.eq("port_id", portId), Filters.eq("status", "empty")),
+                reservation,
+                new FindOneAndUpdateOptions().sort(Sorts.ascending("number")).returnDocument(ReturnDocument.AFTER)
+        );
+        if (locker == null) {
+            throw new RuntimeException("Aucun casier libre dans le port " + portId + ".");
+        }
+        allocator.set(portId, locker.getNumber(), locker.getId(), LockerStatus.RESERVED);
+        DomainEvents.LOCKER_STATUS_CHANGED.publish(locker);
+        return locker;
+    }
 
-        return mapDocumentToLocker(Objects.requireNonNull(collection.find(Filters.eq("_id", objId)).first()));
+    public Locker releaseLocker(String id) {
+        MongoCollection<Locker> collection = mongoDatabase.getCollection("lockers", Locker.class);
+        Locker locker = collection.findOneAndUpdate(
+                Filters.and(Filters.eq("_id", new ObjectId(id)), Filters.eq("status", "reserved")),
+                Updates.combine(Updates.set("status", "empty"), Updates.unset("reserved_for_order_id")),
+                new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER)
+        );
+        if (locker == null) {
+            throw new RuntimeException("Casier introuvable ou non réservé.");
+        }
+        allocator.set(locker.getPortId(), locker.getNumber(), locker.getId(), LockerStatus.EMPTY);
+        DomainEvents.LOCKER_STATUS_CHANGED.publish(locker);
+        return locker;
     }
 
     public boolean deleteLocker(String id) {
-        Document doc = findLockerDocumentById(id);
+        Locker existing = findLockerById(id);
 
-        int portId = doc.getInteger("port_id");
+        int portId = existing.getPortId();
 
-        String currentStatusStr = doc.getString("status").toUpperCase();
-        if (!LockerStatus.EMPTY.name().equals(currentStatusStr)) {
-            throw new RuntimeException("Impossible de supprimer le casier : il n'est pas vide (Statut: " + currentStatusStr + ").");
+        if (existing.getStatus() != LockerStatus.EMPTY) {
+            throw new RuntimeException("Impossible de supprimer le casier : il n'est pas vide (Statut: " + existing.getStatus() + ").");
         }
 
         MongoCollection<Document> collection = mongoDatabase.getCollection("lockers");
         ObjectId objId = new ObjectId(id);
-        collection.deleteOne(Filters.eq("_id", objId));
+        if (collection.deleteOne(Filters.and(Filters.eq("_id", objId), Filters.eq("status", "empty"))).getDeletedCount() == 0) {
+            throw new RuntimeException("Impossible de supprimer le casier : il vient d'être réservé ou supprimé.");
+        }
+        allocator.remove(portId, existing.getNumber());
 
         updatePortLockerCount(portId, -1);
 
         return true;
     }
 
-    private Document findLockerDocumentById(String id) {
-        MongoCollection<Document> collection = mongoDatabase.getCollection("lockers");
+    private Locker findLockerById(String id) {
+        MongoCollection<Locker> collection = mongoDatabase.getCollection("lockers", Locker.class);
         ObjectId objId = new ObjectId(id);
 
-        Document doc = collection.find(Filters.eq("_id", objId)).first();
-        if (doc == null) {
+        Locker locker = collection.find(Filters.eq("_id", objId)).first();
+        if (locker == null) {
             throw new RuntimeException("Casier introuvable.");
         }
 
-        return doc;
-    }
-
-    private Locker mapDocumentToLocker(Document doc) {
-        Locker locker = new Locker(
-                doc.getInteger("port_id"),
-                doc.getInteger("number")
-        );
-        locker.setId(doc.getObjectId("_id"));
-
-        String statusStr = doc.getString("status");
-        if (statusStr != null) {
-            locker.setStatus(LockerStatus.valueOf(statusStr.toUpperCase()));
-        }
-
-        if (doc.containsKey("box_id") && doc.get("box_id") != null) {
-            locker.setBoxId(doc.getObjectId("box_id"));
-        }
-        if (doc.containsKey("reserved_for_order_id") && doc.get("reserved_for_order_id") != null) {
-            locker.setReservedForOrderId(doc.getObjectId("reserved_for_order_id"));
-        }
-
-        locker.setMaintenanceReason(doc.getString("maintenance_reason"));
-        locker.setLastUsed(doc.getString("last_used"));
-
         return locker;
     }
 }
\ No newline at end of file
@@ -3,43 +3,126 @@ package fr.esgi.galapagos.service;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
 import com.mongodb.client.model.Updates;
 import fr.esgi.galapagos.config.MongoConnection;
+import fr.esgi.galapagos.event.DomainEvents;
+import fr.esgi.galapagos.helper.DateHelper;
+import fr.esgi.galapagos.helper.PaginationHelper;
+import fr.esgi.galapagos.helper.PaginationHelper.Connection;
+import fr.esgi.galapagos.helper.ProjectionHelper;
 import fr.esgi.galapagos.model.enums.OrderStatus;
 import fr.esgi.galapagos.model.mongodb.Order;
+import graphql.schema.DataFetchingFieldSelectionSet;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 
-import java.time.LocalDateTime;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 public class OrderService {
 
+    // Champs GraphQL de Order -> champs du document nécessaires pour les résoudre
+    private static final Map<String, List<String>> FIELDS = Map.of(
+            "clientId", List.of("client_id"),
+            "client", List.of("client_id"),
+            "orderDate", List.of("order_date"),
+            "status", List.of("status"),
+            "priority", List.of("priority"),
+            "deliveryPort", List.of("delivery_port"),
+            "products", List.of("products"),
+            "boxCount", List.of("box_count"),
+            "boxesDelivered", List.of("boxes_delivered"),
+            "totalWeightKg", List.of("total_weight_kg")
+    );
+
     private final MongoCollection<Document> collection;
+    private final MongoCollection<Order> orders;
 
     public OrderService() {
         this.collection = MongoConnection.getDatabase().getCollection("orders");
+        this.orders = collection.withDocumentClass(Order.class);
     }
 
-    public List<Order> getOrders(String id, String clientId, OrderStatus status) {
-        List<Order> orders = new ArrayList<>();
+    public List<Order> getOrders(String id, String clientId, OrderStatus status, String from, String to,
+                                 DataFetchingFieldSelectionSet selectionSet) {
+        List<Order> result = new ArrayList<>();
         Bson filter = new Document();
 
         if (id != null) filter = Filters.eq("_id", new ObjectId(id));
         else {
-            List<Bson> filters = new ArrayList<>();
-            if (clientId != null) filters.add(Filters.eq("client_id", new ObjectId(clientId)));
-            if (status != null) filters.add(Filters.eq("status", status.name().toLowerCase()));
+            List<Bson> filters = filters(clientId, status, from, to);
             if (!filters.isEmpty()) filter = Filters.and(filters);
         }
 
-        try (MongoCursor<Document> cursor = collection.find(filter).iterator()) {
-            while (cursor.hasNext()) orders.add(mapToOrder(cursor.next()));
+        try (MongoCursor<Order> cursor = orders.find(filter)
+                .projection(ProjectionHelper.mongoProjection(selectionSet, FIELDS)).iterator()) {
+            while (cursor.hasNext()) result.add(cursor.next());
         }
-        return orders;
+        return result;
+    }
+
+    // Page de commandes triées par _id, à partir du curseur after (index client_id_status_id).
+    // Avec une borne from / to, triées par (order_date, _id) : la plage de dates est lue dans l'index order_date_id
+    // au lieu de filtrer toute la collection dans l'ordre des _id. Tant qu'il reste des dates en texte (triées à part
+    // par Mongo), la page reste triée par _id ; une pagination commencée continue avec le tri de son curseur.
+    public Connection<Order> getOrdersConnection(String clientId, OrderStatus status, String from, String to,
+                                                 Integer first, String after, DataFetchingFieldSelectionSet selectionSet) {
+        int pageSize = PaginationHelper.pageSize(first);
+        List<Bson> filters = filters(clientId, status, from, to);
+        boolean byDate = (from != null || to != null)
+                && (after != null ? PaginationHelper.isDateCursor(after) : !DateHelper.hasLegacyDates());
+
+        if (!byDate) {
+            ObjectId afterId = PaginationHelper.decodeObjectIdCursor(after);
+            if (afterId != null) filters.add(Filters.gt("_id", afterId));
+
+            List<Order> result = page(filters, ProjectionHelper.nodeProjection(selectionSet, FIELDS),
+                    Sorts.ascending("_id"), pageSize);
+            return PaginationHelper.connection(result, pageSize, afterId != null, order -> order.getId().toHexString());
+        }
+
+        PaginationHelper.DateCursor afterDate = PaginationHelper.decodeDateCursor(after);
+        if (afterDate != null) filters.add(PaginationHelper.after("order_date", afterDate));
+
+        List<Order> result = page(filters, ProjectionHelper.nodeProjection(selectionSet, FIELDS, "order_date"),
+                Sorts.ascending("order_date", "_id"), pageSize);
+        return PaginationHelper.connection(result, pageSize, afterDate != null,
+                order -> PaginationHelper.dateCursorValue(order.getOrderDate(), order.getId()));
+    }
+
+    private List<Order> page(List<Bson> filters, Bson projection, Bson sort, int pageSize) {
+        return orders.find(filters.isEmpty() ? new Document() : Filters.and(filters))
+                .projection(projection)
+                .sort(sort)
+                .limit(pageSize + 1)
+                .into(new ArrayList<>());
+    }
+
+    // from / to : bornes sur order_date, to exclu
+    private List<Bson> filters(String clientId, OrderStatus status, String from, String to) {
+        List<Bson> filters = new ArrayList<>();
+        if (clientId != null) filters.add(Filters.eq("client_id", new ObjectId(clientId)));
+        if (status != null) filters.add(Filters.eq("status", status.name().toLowerCase()));
+        Bson dates = DateHelper.range("order_date", from, to);
+        if (dates != null) filters.add(dates);
+        return filters;
+    }
+
+    public Map<ObjectId, Order> getOrdersByIds(Collection<ObjectId> ids) {
+        Map<ObjectId, Order> result = new HashMap<>();
+        try (MongoCursor<Order> cursor = orders.find(Filters.in("_id", ids)).iterator()) {
+            while (cursor.hasNext()) {
+                Order order = cursor.next();
+                result.put(order.getId(), order);
+            }
+        }
+        return result;
     }
 
     public Order createOrder(String clientId, String priority, String port, 
@@ -47,7 +130,7 @@ public class OrderService {
         
         Order order = new Order(
                 new ObjectId(clientId),
-                LocalDateTime.now().toString(),
+                Instant.now(),
                 OrderStatus.PENDING,
                 priority,
                 port,
@@ -55,41 +138,19 @@ public class OrderService {
                 boxCount,
                 weight
         );
-        collection.insertOne(order.toDocument());
+        orders.insertOne(order);
         return order;
     }
 
     public Order updateStatus(String id, OrderStatus status) {
         collection.updateOne(Filters.eq("_id", new ObjectId(id)), 
                            Updates.set("status", status.name().toLowerCase()));
-        return getOrders(id, null, null).getFirst();
+        Order order = getOrders(id, null, null, null, null, null).getFirst();
+        DomainEvents.ORDER_STATUS_CHANGED.publish(order);
+        return order;
     }
 
     public boolean deleteOrder(String id) {
         return collection.findOneAndDelete(Filters.eq("_id", new ObjectId(id))) != null;
     }
-
-    @SuppressWarnings("unchecked")
-    private Order mapToOrder(Document doc) {
-        List<Document> prodsDoc = (List<Document>) doc.get("products");
-        List<Order.OrderedProduct> products = prodsDoc.stream()
-                .map(d -> new Order.OrderedProduct(d.getObjectId("product_id"), d.getInteger("quantity")))
-                .collect(Collectors.toList());
-
-        Order o = new Order(
-                doc.getObjectId("client_id"),
-                doc.getString("order_date"),
-                OrderStatus.valueOf(doc.getString("status").toUpperCase()),
-                doc.getString("priority"),
-                doc.getString("delivery_port"),
-                products,
-                doc.getInteger("box_count"),
-                doc.getDouble("total_weight_kg")
-        );
-        o.setId(doc.getObjectId("_id"));
-        if (doc.containsKey("boxes_delivered")) {
-            o.setBoxesDelivered(doc.getInteger("boxes_delivered"));
-        }
-        return o;
-    }
 }
\ No newline at end of file
@@ -5,39 +5,63 @@ import com.mongodb.client.MongoCursor;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.Updates;
 import fr.esgi.galapagos.config.MongoConnection;
+import fr.esgi.galapagos.helper.PaginationHelper.Connection;
+import fr.esgi.galapagos.helper.SearchHelper;
 import fr.esgi.galapagos.model.mongodb.Product;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 public class ProductService {
 
     private final MongoCollection<Document> collection;
+    private final MongoCollection<Product> products;
 
     public ProductService() {
         this.collection = MongoConnection.getDatabase().getCollection("products");
+        this.products = collection.withDocumentClass(Product.class);
     }
 
     public List<Product> getProducts(String id, String name) {
-        List<Product> products = new ArrayList<>();
+        List<Product> result = new ArrayList<>();
         Bson filter = new Document();
 
         if (id != null) filter = Filters.eq("_id", new ObjectId(id));
-        else if (name != null) filter = Filters.regex("name", Pattern.compile(name, Pattern.CASE_INSENSITIVE));
+        // Pattern.quote : le texte saisi est cherché tel quel, sans être interprété comme une expression régulière
+        else if (name != null) filter = Filters.regex("name", Pattern.compile(Pattern.quote(name), Pattern.CASE_INSENSITIVE));
 
-        try (MongoCursor<Document> cursor = collection.find(filter).iterator()) {
-            while (cursor.hasNext()) products.add(mapToProduct(cursor.next()));
+        try (MongoCursor<Product> cursor = products.find(filter).iterator()) {
+            while (cursor.hasNext()) result.add(cursor.next());
         }
-        return products;
+        return result;
+    }
+
+    // Recherche par mots sur le nom et la description (index texte products_text), par pertinence
+    public Connection<Product> searchProducts(String text, Integer first, String after) {
+        return SearchHelper.search(collection, Product.class, text, null, first, after);
+    }
+
+    public Map<ObjectId, Product> getProductsByIds(Collection<ObjectId> ids) {
+        Map<ObjectId, Product> result = new HashMap<>();
+        try (MongoCursor<Product> cursor = products.find(Filters.in("_id", ids)).iterator()) {
+            while (cursor.hasNext()) {
+                Product product = cursor.next();
+                result.put(product.getId(), product);
+            }
+        }
+        return result;
     }
 
     public Product createProduct(String name, String desc, int stock, double weight, double price) {
         Product product = new Product(name, desc, stock, weight, price);
-        collection.insertOne(product.toDocument());
+        products.insertOne(product);
         return product;
     }
 
@@ -58,14 +82,4 @@ public class ProductService {
     public boolean deleteProduct(String id) {
         return collection.findOneAndDelete(Filters.eq("_id", new ObjectId(id))) != null;
     }
-
-    private Product mapToProduct(Document doc) {
-        Product p = new Product(
-                doc.getString("name"), doc.getString("description"),
-                doc.getInteger("stock_available"), doc.getDouble("weight_kg"),
-                doc.getDouble("unit_price")
-        );
-        p.setId(doc.getObjectId("_id"));
-        return p;
-    }
 }
\ No newline at end of file
@@ -3,11 +3,15 @@ package fr.esgi.galapagos.service;
 import com.mongodb.client.MongoDatabase;
 import fr.esgi.galapagos.config.MongoConnection;
 import fr.esgi.galapagos.config.Neo4jConnection;
+import fr.esgi.galapagos.event.DomainEvents;
+import fr.esgi.galapagos.helper.ProjectionHelper;
+import fr.esgi.galapagos.metrics.Neo4jMetrics;
 import fr.esgi.galapagos.model.enums.DeliveryStatus;
 import fr.esgi.galapagos.model.enums.SeaplaneStatus;
 import fr.esgi.galapagos.model.neo4j.Island;
 import fr.esgi.galapagos.model.neo4j.Location;
 import fr.esgi.galapagos.model.neo4j.Seaplane;
+import graphql.schema.DataFetchingFieldSelectionSet;
 import org.bson.Document;
 import org.neo4j.driver.Driver;
 import org.neo4j.driver.Result;
@@ -38,14 +42,14 @@ public class SeaplaneService {
 
     public Seaplane createSeaplane(String id, String model, int boxCapacity, double fuelConsumptionKm, double cruiseSpeedKmh, String statusStr, Integer portId) {
         try (Session session = driver.session()) {
-            return session.executeWrite(tx -> {
+            return Neo4jMetrics.executeWrite(session, "seaplanes.create", tx -> {
                 // Note: La logique de création attache déjà l'avion à un port (ou warehouse par défaut via portId null),
                 // mais on ajoute le RETURN_CLAUSE complet pour être cohérent avec le mapper.
                 String query =
                         "CREATE (s:Seaplane {id: $id, model: $model, box_capacity: $boxCapacity, fuel_consumption_km: $fuelConsumptionKm, cruise_speed_kmh: $cruiseSpeedKmh, status: $status}) " +
                                 "WITH s " +
-                                "MATCH (p:Port) " +
-                                "WHERE ($portId IS NOT NULL AND p.id = $portId) OR ($portId IS NULL AND p:Warehouse) " +
+                                // Deux formes distinctes plutôt qu'un OR, qui empêcherait l'utilisation de port_id_unique
+                                (portId != null ? "MATCH (p:Port {id: $portId}) " : "MATCH (p:Warehouse) ") +
                                 "WITH s, p LIMIT 1 " +
                                 "CREATE (s)-[:STATIONED_AT]->(p) " +
                                 "WITH s, p " +
@@ -73,13 +77,17 @@ public class SeaplaneService {
         }
     }
 
-    public List<Seaplane> getSeaplanes(String id) {
+    public List<Seaplane> getSeaplanes(String id, DataFetchingFieldSelectionSet selectionSet) {
+        // Les OPTIONAL MATCH de localisation ne servent qu'à currentLocation : inutile de les exécuter s'il n'est pas demandé
+        boolean withLocation = ProjectionHelper.isSelected(selectionSet, "currentLocation");
+
         try (Session session = driver.session()) {
-            return session.executeRead(tx -> {
+            return Neo4jMetrics.executeRead(session, "seaplanes.get", tx -> {
                 String query = "MATCH (s:Seaplane) " +
                         (id != null ? "WHERE s.id = $id " : "") +
-                        "OPTIONAL MATCH (s)-[:STATIONED_AT]->(p:Port)<-[:HAS_PORT]-(i:Island) " +
-                        RETURN_CLAUSE;
+                        (withLocation
+                                ? "OPTIONAL MATCH (s)-[:STATIONED_AT]->(p:Port)<-[:HAS_PORT]-(i:Island) " + RETURN_CLAUSE
+                                : "RETURN s");
 
                 Map<String, Object> params = id != null ? Map.of("id", id) : Map.of();
                 Result result = tx.run(query, params);
@@ -90,8 +98,9 @@ public class SeaplaneService {
     }
 
     public Seaplane updateSeaplane(String id, String model, Integer boxCapacity, Double fuelConsumptionKm, Double cruiseSpeedKmh, String statusStr) {
+        Seaplane updated;
         try (Session session = driver.session()) {
-            return session.executeWrite(tx -> {
+            updated = Neo4jMetrics.executeWrite(session, "seaplanes.update", tx -> {
                 Result checkRes = tx.run("MATCH (s:Seaplane {id: $id}) RETURN s.status as status", Map.of("id", id));
                 if (!checkRes.hasNext()) throw new RuntimeException("Hydravion introuvable");
                 String currentStatus = checkRes.next().get("status").asString();
@@ -123,6 +132,11 @@ public class SeaplaneService {
                 return null;
             });
         }
+
+        if (updated != null) {
+            DomainEvents.SEAPLANE_UPDATED.publish(updated);
+        }
+        return updated;
     }
 
     public boolean deleteSeaplane(String id) {
@@ -136,7 +150,7 @@ public class SeaplaneService {
         }
 
         try (Session session = driver.session()) {
-            return session.executeWrite(tx -> {
+            return Neo4jMetrics.executeWrite(session, "seaplanes.delete", tx -> {
                 Result res = tx.run("MATCH (s:Seaplane {id: $id})-[r:FLYING_TO|FLYING_FROM]-() RETURN count(r) as cnt", Map.of("id", id));
                 if (res.hasNext() && res.next().get("cnt").asInt() > 0) {
                     throw new RuntimeException("Impossible de supprimer l’hydravion : il est associé à des vols.");
@@ -149,8 +163,9 @@ public class SeaplaneService {
     }
 
     public Seaplane assignFlight(String seaplaneId, String departurePort, String arrivalPort) {
+        Seaplane assigned;
         try (Session session = driver.session()) {
-            return session.executeWrite(tx -> {
+            assigned = Neo4jMetrics.executeWrite(session, "seaplanes.assignFlight", tx -> {
                 Result check = tx.run("MATCH (s:Seaplane {id: $id}) RETURN s.status as status", Map.of("id", seaplaneId));
                 if (!check.hasNext()) throw new RuntimeException("Hydravion introuvable");
 
@@ -177,17 +192,20 @@ public class SeaplaneService {
                 throw new RuntimeException("Impossible d’assigner un vol à l’hydravion");
             });
         }
+
+        DomainEvents.SEAPLANE_UPDATED.publish(assigned);
+        return assigned;
     }
 
     private Seaplane mapRecordToSeaplane(Record record) {
         Node sNode = record.get("s").asNode();
-        Node pNode = record.get("p").isNull() ? null : record.get("p").asNode();
-        Node iNode = record.get("i").isNull() ? null : record.get("i").asNode();
+        Node pNode = optionalNode(record, "p");
+        Node iNode = optionalNode(record, "i");
 
-        Node pFrom = record.get("pFrom").isNull() ? null : record.get("pFrom").asNode();
-        Node pTo = record.get("pTo").isNull() ? null : record.get("pTo").asNode();
-        Node wNode = record.get("w").isNull() ? null : record.get("w").asNode();
-        Node iwNode = record.get("iw").isNull() ? null : record.get("iw").asNode();
+        Node pFrom = optionalNode(record, "pFrom");
+        Node pTo = optionalNode(record, "pTo");
+        Node wNode = optionalNode(record, "w");
+        Node iwNode = optionalNode(record, "iw");
 
         Seaplane seaplane = new Seaplane(
                 sNode.get("id").asString(),
@@ -220,6 +238,11 @@ public class SeaplaneService {
         return seaplane;
     }
 
+    // Colonne absente (requête sans localisation) ou OPTIONAL MATCH sans résultat
+    private Node optionalNode(Record record, String key) {
+        return record.containsKey(key) && !record.get(key).isNull() ? record.get(key).asNode() : null;
+    }
+
     private Location createLocationFromNodes(Node pNode, Node iNode) {
         Island island = new Island(
                 iNode.get("id").asInt(),
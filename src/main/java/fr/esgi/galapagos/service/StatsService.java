@@ -0,0 +1,137 @@
+package fr.esgi.galapagos.service;
+
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import fr.esgi.galapagos.config.MongoConnection;
+import fr.esgi.galapagos.helper.DateHelper;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Statistiques du tableau de bord calculées par des pipelines d'agrégation :
+// seuls les totaux transitent entre MongoDB, le serveur et le navigateur.
+public class StatsService {
+
+    public enum OrderGroupBy {
+        STATUS("status"),
+        PORT("delivery_port"),
+        CLIENT("client_id");
+
+        private final String field;
+
+        OrderGroupBy(String field) {
+            this.field = field;
+        }
+    }
+
+    public record OrderStat(String key, int count, int boxCount, double totalWeightKg) {}
+
+    public record LockerOccupancy(int portId, int total, int empty, int reserved, int occupied, int maintenance) {}
+
+    public record ProductStockSummary(int productCount, long totalStock, int outOfStock, int lowStock,
+                                      double totalStockValue, double totalStockWeightKg) {}
+
+    private final MongoDatabase database;
+
+    public StatsService() {
+        this.database = MongoConnection.getDatabase();
+    }
+
+    // Nombre de commandes par statut, port de livraison ou client, du plus grand au plus petit
+    public List<OrderStat> getOrderStats(OrderGroupBy groupBy, String from, String to) {
+        Bson dates = DateHelper.range("order_date", from, to);
+
+        List<Bson> pipeline = new ArrayList<>();
+        if (dates != null) {
+            pipeline.add(Aggregates.match(dates));
+        }
+        pipeline.add(Aggregates.group("$" + groupBy.field,
+                Accumulators.sum("count", 1),
+                Accumulators.sum("box_count", "$box_count"),
+                Accumulators.sum("total_weight_kg", "$total_weight_kg")));
+        pipeline.add(Aggregates.sort(Sorts.orderBy(Sorts.descending("count"), Sorts.ascending("_id"))));
+
+        List<OrderStat> result = new ArrayList<>();
+        for (Document group : database.getCollection("orders").aggregate(pipeline)) {
+            Object key = group.get("_id");
+            result.add(new OrderStat(
+                    key instanceof ObjectId id ? id.toHexString() : key != null ? key.toString() : null,
+                    group.get("count", Number.class).intValue(),
+                    group.get("box_count", Number.class).intValue(),
+                    group.get("total_weight_kg", Number.class).doubleValue()
+            ));
+        }
+        return result;
+    }
+
+    // Casiers par statut pour un port (ou pour tous les ports), à partir de l'index (port_id, status, number)
+    public List<LockerOccupancy> getLockerOccupancy(Integer portId) {
+        List<Bson> pipeline = new ArrayList<>();
+        if (portId != null) {
+            pipeline.add(Aggregates.match(Filters.eq("port_id", portId)));
+        }
+        pipeline.add(Aggregates.group("$port_id",
+                Accumulators.sum("total", 1),
+                Accumulators.sum("empty", countStatus("empty")),
+                Accumulators.sum("reserved", countStatus("reserved")),
+                Accumulators.sum("occupied", countStatus("occupied")),
+                Accumulators.sum("maintenance", countStatus("maintenance"))));
+        pipeline.add(Aggregates.sort(Sorts.ascending("_id")));
+
+        List<LockerOccupancy> result = new ArrayList<>();
+        for (Document port : database.getCollection("lockers").aggregate(pipeline)) {
+            result.add(new LockerOccupancy(
+                    port.get("_id", Number.class).intValue(),
+                    port.get("total", Number.class).intValue(),
+                    port.get("empty", Number.class).intValue(),
+                    port.get("reserved", Number.class).intValue(),
+                    port.get("occupied", Number.class).intValue(),
+                    port.get("maintenance", Number.class).intValue()
+            ));
+        }
+        return result;
+    }
+
+    public ProductStockSummary getProductStockSummary(int lowStockThreshold) {
+        Document summary = database.getCollection("products").aggregate(List.of(
+                Aggregates.group(null,
+                        Accumulators.sum("product_count", 1),
+                        Accumulators.sum("total_stock", "$stock_available"),
+                        Accumulators.sum("out_of_stock", condition(new Document("$lte", List.of("$stock_available", 0)))),
+                        Accumulators.sum("low_stock", condition(new Document("$and", List.of(
+                                new Document("$gt", List.of("$stock_available", 0)),
+                                new Document("$lt", List.of("$stock_available", lowStockThreshold)))))),
+                        Accumulators.sum("total_stock_value",
+                                new Document("$multiply", List.of("$stock_available", "$unit_price"))),
+                        Accumulators.sum("total_stock_weight_kg",
+                                new Document("$multiply", List.of("$stock_available", "$weight_kg"))))
+        )).first();
+
+        if (summary == null) {
+            return new ProductStockSummary(0, 0, 0, 0, 0, 0);
+        }
+        return new ProductStockSummary(
+                summary.get("product_count", Number.class).intValue(),
+                summary.get("total_stock", Number.class).longValue(),
+                summary.get("out_of_stock", Number.class).intValue(),
+                summary.get("low_stock", Number.class).intValue(),
+                summary.get("total_stock_value", Number.class).doubleValue(),
+                summary.get("total_stock_weight_kg", Number.class).doubleValue()
+        );
+    }
+
+    private Document countStatus(String status) {
+        return condition(new Document("$eq", List.of("$status", status)));
+    }
+
+    // 1 si la condition est vraie, 0 sinon : à sommer dans un $group
+    private Document condition(Document predicate) {
+        return new Document("$cond", List.of(predicate, 1, 0));
+    }
+}
@@ -14,7 +14,9 @@ import org.bson.types.ObjectId;
 import org.neo4j.driver.Driver;
 import org.neo4j.driver.Session;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 
 import static org.neo4j.driver.Values.parameters;
@@ -114,7 +116,8 @@ public class DataInitializer {
             session.executeWrite(tx -> tx.run("MATCH (n) DETACH DELETE n").consume());
         }
 
-        for (String collection : Arrays.asList("products", "clients", "lockers", "orders", "boxes", "deliveries")) {
+        // counters : les séquences de numéros de casiers repartent des casiers réinsérés
+        for (String collection : Arrays.asList("products", "clients", "lockers", "orders", "boxes", "deliveries", "counters")) {
             database.getCollection(collection).drop();
         }
     }
@@ -177,7 +180,7 @@ public class DataInitializer {
     private static Map<String, ObjectId> populateMongoDB(MongoDatabase database) {
         Map<String, ObjectId> ids = new HashMap<>();
 
-        MongoCollection<Document> productCol = database.getCollection("products");
+        MongoCollection<Product> productCol = database.getCollection("products", Product.class);
         List<Product> products = Arrays.asList(
                 new Product("Sonde volcanique haute température", "Capteur résistant jusqu'à 1200°C pour l'étude de la lave", 20, 5.5, 2500.0),
                 new Product("Kit de prélèvement ADN faune", "Kit complet pour analyse génétique", 150, 0.8, 180.0),
@@ -195,7 +198,7 @@ public class DataInitializer {
                 new Product("Kit d'analyse de sol", "Analyse pH, NPK et composition sol volcanique", 60, 4.0, 750.0),
                 new Product("Centrifugeuse de terrain", "Mini-centrifugeuse portable pour séparation échantillons sanguins", 10, 1.8, 1100.0)
         );
-        for (Product p : products) productCol.insertOne(p.toDocument());
+        for (Product p : products) productCol.insertOne(p);
 
         ids.put("product1", products.get(0).getId());
         ids.put("product2", products.get(1).getId());
@@ -206,7 +209,7 @@ public class DataInitializer {
         ids.put("product_soil", products.get(13).getId());
         ids.put("product_centri", products.get(14).getId());
 
-        MongoCollection<Document> clientCol = database.getCollection("clients");
+        MongoCollection<Client> clientCol = database.getCollection("clients", Client.class);
         List<Client> clients = Arrays.asList(
                 new Client("Dr. Elena Rodriguez", "chercheur", "Volcanologie", "Étude du volcan Sierra Negra", "e.rodriguez@galapagos-science.org"),
                 new Client("Prof. Ben Carter", "chercheur", "Biologie marine", "Conservation des tortues géantes", "b.carter@darwin-research.ec"),
@@ -217,7 +220,7 @@ public class DataInitializer {
                 new Client("Université San Francisco de Quito", "institution", "Sciences de la vie", "Écologie insulaire", "gaias@usfq.edu.ec"),
                 new Client("Dr. Sophie Dubois", "chercheur", "Botanique", "Flore endémique de Floreana", "s.dubois@paris-botanique.fr")
         );
-        for (Client c : clients) clientCol.insertOne(c.toDocument());
+        for (Client c : clients) clientCol.insertOne(c);
 
         ids.put("client1", clients.get(0).getId());
         ids.put("client2", clients.get(1).getId());
@@ -226,7 +229,7 @@ public class DataInitializer {
         ids.put("client_usfq", clients.get(6).getId());
         ids.put("client_dubois", clients.get(7).getId());
 
-        MongoCollection<Document> lockerCol = database.getCollection("lockers");
+        MongoCollection<Locker> lockerCol = database.getCollection("lockers", Locker.class);
         for (Port port : PORTS) {
             for (int i = 1; i <= port.getNbLockers(); i++) {
                 lockerCol.insertOne(new Locker(port.getId(), i).toDocument());
@@ -237,101 +240,101 @@ public class DataInitializer {
     }
 
     private static void createTestData(MongoDatabase database, Map<String, ObjectId> ids) {
-        MongoCollection<Document> ordersCol = database.getCollection("orders");
-        MongoCollection<Document> boxesCol = database.getCollection("boxes");
-        MongoCollection<Document> deliveriesCol = database.getCollection("deliveries");
+        MongoCollection<Order> ordersCol = database.getCollection("orders", Order.class);
+        MongoCollection<Box> boxesCol = database.getCollection("boxes", Box.class);
+        MongoCollection<Delivery> deliveriesCol = database.getCollection("deliveries", Delivery.class);
         MongoCollection<Document> lockersCol = database.getCollection("lockers");
         MongoCollection<Document> productsCol = database.getCollection("products");
         MongoCollection<Document> clientsCol = database.getCollection("clients");
 
-        Order order1 = new Order(ids.get("client1"), LocalDateTime.now().minusDays(5).toString(), OrderStatus.DELIVERED, "normal", "Puerto Villamil",
+        Order order1 = new Order(ids.get("client1"), Instant.now().minus(5, ChronoUnit.DAYS), OrderStatus.DELIVERED, "normal", "Puerto Villamil",
                 Arrays.asList(new Order.OrderedProduct(ids.get("product1"), 3), new Order.OrderedProduct(ids.get("product3"), 1)), 2, 28.5);
-        ordersCol.insertOne(order1.toDocument());
+        ordersCol.insertOne(order1);
         updateClientHistory(clientsCol, ids.get("client1"), order1.getId());
         decrementStock(productsCol, ids.get("product1"), 3);
         decrementStock(productsCol, ids.get("product3"), 1);
 
         Box box1 = new Box(order1.getId(), ids.get("client1"), 1, BoxStatus.DELIVERED, "3x Sonde volcanique");
         Box box2 = new Box(order1.getId(), ids.get("client1"), 2, BoxStatus.DELIVERED, "1x Station météo");
-        boxesCol.insertMany(Arrays.asList(box1.toDocument(), box2.toDocument()));
+        boxesCol.insertMany(Arrays.asList(box1, box2));
 
         updateLocker(lockersCol, 3, 1, LockerStatus.OCCUPIED.name().toLowerCase(), box1.getId());
         updateLocker(lockersCol, 3, 2, LockerStatus.OCCUPIED.name().toLowerCase(), box2.getId());
 
-        Order order2 = new Order(ids.get("client2"), LocalDateTime.now().minusDays(1).toString(), OrderStatus.PENDING, "normal", "Puerto Ayora",
+        Order order2 = new Order(ids.get("client2"), Instant.now().minus(1, ChronoUnit.DAYS), OrderStatus.PENDING, "normal", "Puerto Ayora",
                 Collections.singletonList(new Order.OrderedProduct(ids.get("product2"), 50)), 1, 40.0);
-        ordersCol.insertOne(order2.toDocument());
+        ordersCol.insertOne(order2);
         updateClientHistory(clientsCol, ids.get("client2"), order2.getId());
 
-        Order order3 = new Order(ids.get("client3"), LocalDateTime.now().minusHours(8).toString(), OrderStatus.IN_TRANSIT, "normal", "Baie Darwin",
+        Order order3 = new Order(ids.get("client3"), Instant.now().minus(8, ChronoUnit.HOURS), OrderStatus.IN_TRANSIT, "normal", "Baie Darwin",
                 Arrays.asList(new Order.OrderedProduct(ids.get("product1"), 2), new Order.OrderedProduct(ids.get("product2"), 20)), 2, 27.0);
-        ordersCol.insertOne(order3.toDocument());
+        ordersCol.insertOne(order3);
         updateClientHistory(clientsCol, ids.get("client3"), order3.getId());
         decrementStock(productsCol, ids.get("product1"), 2);
         decrementStock(productsCol, ids.get("product2"), 20);
 
         Box box3_1 = new Box(order3.getId(), ids.get("client3"), 1, BoxStatus.IN_TRANSIT, "2x Sonde volcanique");
         Box box3_2 = new Box(order3.getId(), ids.get("client3"), 2, BoxStatus.IN_TRANSIT, "20x Kit ADN");
-        boxesCol.insertMany(Arrays.asList(box3_1.toDocument(), box3_2.toDocument()));
+        boxesCol.insertMany(Arrays.asList(box3_1, box3_2));
 
         Delivery delivery1 = new Delivery(order3.getId(), "HB-LSI", DeliveryStatus.IN_PROGRESS)
-                .departureDate(LocalDateTime.now().minusHours(2).toString())
+                .departureDate(Instant.now().minus(2, ChronoUnit.HOURS))
                 .route(Arrays.asList("Puerto Baquerizo Moreno", "Baie Darwin"), "Baie Darwin", 145.2)
                 .currentStatus("in_flight", 3194.4)
                 .boxes(Arrays.asList(box3_1.getId(), box3_2.getId()));
-        deliveriesCol.insertOne(delivery1.toDocument());
+        deliveriesCol.insertOne(delivery1);
 
-        Order order4 = new Order(ids.get("client_dubois"), LocalDateTime.now().minusDays(3).toString(), OrderStatus.DELIVERED, "normal", "Punta Cormorant",
+        Order order4 = new Order(ids.get("client_dubois"), Instant.now().minus(3, ChronoUnit.DAYS), OrderStatus.DELIVERED, "normal", "Punta Cormorant",
                 Arrays.asList(new Order.OrderedProduct(ids.get("product_soil"), 5), new Order.OrderedProduct(ids.get("product2"), 10)), 1, 28.0);
-        ordersCol.insertOne(order4.toDocument());
+        ordersCol.insertOne(order4);
         updateClientHistory(clientsCol, ids.get("client_dubois"), order4.getId());
         decrementStock(productsCol, ids.get("product_soil"), 5);
         decrementStock(productsCol, ids.get("product2"), 10);
 
         Box box3 = new Box(order4.getId(), ids.get("client_dubois"), 1, BoxStatus.DELIVERED, "5x Kit sol, 10x Kit ADN");
-        boxesCol.insertOne(box3.toDocument());
+        boxesCol.insertOne(box3);
         updateLocker(lockersCol, 14, 1, LockerStatus.OCCUPIED.name().toLowerCase(), box3.getId());
 
         Delivery delivery2 = new Delivery(order4.getId(), "HB-LSO", DeliveryStatus.COMPLETED)
-                .departureDate(LocalDateTime.now().minusDays(3).plusHours(2).toString())
-                .arrivalDate(LocalDateTime.now().minusDays(3).plusHours(4).toString())
+                .departureDate(Instant.now().minus(3, ChronoUnit.DAYS).plus(2, ChronoUnit.HOURS))
+                .arrivalDate(Instant.now().minus(3, ChronoUnit.DAYS).plus(4, ChronoUnit.HOURS))
                 .route(Arrays.asList("Puerto Baquerizo Moreno", "Punta Cormorant"), "Punta Cormorant", 60.5)
                 .currentStatus("Punta Cormorant", 1149.5)
                 .boxes(List.of(box3.getId()));
-        deliveriesCol.insertOne(delivery2.toDocument());
+        deliveriesCol.insertOne(delivery2);
 
-        Order order5 = new Order(ids.get("client_usfq"), LocalDateTime.now().minusDays(1).toString(), OrderStatus.PENDING, "urgent", "Canal de Itabaca",
+        Order order5 = new Order(ids.get("client_usfq"), Instant.now().minus(1, ChronoUnit.DAYS), OrderStatus.PENDING, "urgent", "Canal de Itabaca",
                 Arrays.asList(new Order.OrderedProduct(ids.get("product_net"), 20), new Order.OrderedProduct(ids.get("product_centri"), 2)), 2, 53.6);
-        ordersCol.insertOne(order5.toDocument());
+        ordersCol.insertOne(order5);
         updateClientHistory(clientsCol, ids.get("client_usfq"), order5.getId());
 
         Delivery delivery3 = new Delivery(order5.getId(), "HB-LSC", DeliveryStatus.SCHEDULED)
-                .scheduledDeparture(LocalDateTime.now().plusHours(3).toString())
+                .scheduledDeparture(Instant.now().plus(3, ChronoUnit.HOURS))
                 .route(Arrays.asList("Puerto Baquerizo Moreno", "Canal de Itabaca"), "Canal de Itabaca", 80.0);
-        deliveriesCol.insertOne(delivery3.toDocument());
+        deliveriesCol.insertOne(delivery3);
 
-        Order order6 = new Order(ids.get("client_tanaka"), LocalDateTime.now().minusHours(4).toString(), OrderStatus.PENDING, "urgent", "Punta Espinoza",
+        Order order6 = new Order(ids.get("client_tanaka"), Instant.now().minus(4, ChronoUnit.HOURS), OrderStatus.PENDING, "urgent", "Punta Espinoza",
                 Collections.singletonList(new Order.OrderedProduct(ids.get("product_sismo"), 3)), 1, 21.6);
-        ordersCol.insertOne(order6.toDocument());
+        ordersCol.insertOne(order6);
         updateClientHistory(clientsCol, ids.get("client_tanaka"), order6.getId());
 
         Delivery delivery4 = new Delivery(order6.getId(), "HB-LSN", DeliveryStatus.DELAYED)
-                .scheduledDeparture(LocalDateTime.now().minusHours(1).toString())
+                .scheduledDeparture(Instant.now().minus(1, ChronoUnit.HOURS))
                 .delayReason("Maintenance technique requise avant le décollage")
                 .route(Arrays.asList("Puerto Baquerizo Moreno", "Punta Espinoza"), "Punta Espinoza", 0);
-        deliveriesCol.insertOne(delivery4.toDocument());
+        deliveriesCol.insertOne(delivery4);
 
-        Order order7 = new Order(ids.get("client_usfq"), LocalDateTime.now().minusDays(4).toString(), OrderStatus.PARTIALLY_DELIVERED, "normal", "Puerto Villamil",
+        Order order7 = new Order(ids.get("client_usfq"), Instant.now().minus(4, ChronoUnit.DAYS), OrderStatus.PARTIALLY_DELIVERED, "normal", "Puerto Villamil",
                 Collections.singletonList(new Order.OrderedProduct(ids.get("product_net"), 30)), 3, 75.0);
         order7.setBoxesDelivered(2);
-        ordersCol.insertOne(order7.toDocument());
+        ordersCol.insertOne(order7);
         updateClientHistory(clientsCol, ids.get("client_usfq"), order7.getId());
         decrementStock(productsCol, ids.get("product_net"), 30);
 
         Box box7_1 = new Box(order7.getId(), ids.get("client_usfq"), 1, BoxStatus.DELIVERED, "10x Filets marins");
         Box box7_2 = new Box(order7.getId(), ids.get("client_usfq"), 2, BoxStatus.DELIVERED, "10x Filets marins");
         Box box7_3 = new Box(order7.getId(), ids.get("client_usfq"), 3, BoxStatus.PENDING, "10x Filets marins");
-        boxesCol.insertMany(Arrays.asList(box7_1.toDocument(), box7_2.toDocument(), box7_3.toDocument()));
+        boxesCol.insertMany(Arrays.asList(box7_1, box7_2, box7_3));
 
         updateLocker(lockersCol, 3, 3, LockerStatus.OCCUPIED.name().toLowerCase(), box7_1.getId());
         updateLocker(lockersCol, 3, 4, LockerStatus.OCCUPIED.name().toLowerCase(), box7_2.getId());
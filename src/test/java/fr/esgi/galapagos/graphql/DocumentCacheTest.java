@@ -0,0 +1,138 @@
+package fr.esgi.galapagos.graphql;
+
+import graphql.ErrorType;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.language.OperationDefinition;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DocumentCacheTest {
+
+    private static final String SDL = """
+            type Query { ping: String }
+            type Mutation { touch: Int }
+            """;
+
+    private final AtomicInteger touches = new AtomicInteger();
+    private DocumentCache cache;
+    private GraphQL graphQL;
+
+    @BeforeEach
+    void setUp() {
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+                .type("Query", builder -> builder.dataFetcher("ping", env -> "pong"))
+                .type("Mutation", builder -> builder.dataFetcher("touch", env -> touches.incrementAndGet()))
+                .build();
+        GraphQLSchema schema = new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(SDL), wiring);
+        cache = new DocumentCache(10);
+        graphQL = GraphQL.newGraphQL(schema).preparsedDocumentProvider(cache).build();
+    }
+
+    @Test
+    void mutationIsRejectedInReadOnlyMode() {
+        ExecutionResult result = execute("mutation { touch }", null, true);
+
+        assertEquals(1, result.getErrors().size());
+        assertEquals(ErrorType.OperationNotSupported, result.getErrors().get(0).getErrorType());
+        assertNull(result.getData());
+        assertEquals(0, touches.get());
+    }
+
+    @Test
+    void selectedMutationIsRejectedInReadOnlyMode() {
+        String query = "query Read { ping } mutation Write { touch }";
+
+        assertTrue(execute(query, "Read", true).getErrors().isEmpty());
+        assertEquals(1, execute(query, "Write", true).getErrors().size());
+        assertEquals(0, touches.get());
+    }
+
+    @Test
+    void queryIsAllowedInReadOnlyMode() {
+        ExecutionResult result = execute("{ ping }", null, true);
+
+        assertTrue(result.getErrors().isEmpty());
+        assertEquals(Map.of("ping", "pong"), result.getData());
+    }
+
+    @Test
+    void mutationIsAllowedOutsideReadOnlyMode() {
+        ExecutionResult result = execute("mutation { touch }", null, false);
+
+        assertTrue(result.getErrors().isEmpty());
+        assertEquals(1, touches.get());
+    }
+
+    @Test
+    void cachedMutationIsStillRejectedInReadOnlyMode() {
+        // Le document est mis en cache par la requête POST, la requête GET suivante le retrouve
+        execute("mutation { touch }", null, false);
+        ExecutionResult result = execute("mutation { touch }", null, true);
+
+        assertEquals(1, result.getErrors().size());
+        assertEquals(1, touches.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void describedOperationOfAnUnseenDocumentIsScanned() {
+        DocumentCache.OperationInfo info = cache.describe("mutation { touch }", null, null, graphQL.getGraphQLSchema());
+
+        assertTrue(info.isMutation());
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    void scanFindsTheOperationType() {
+        assertEquals(OperationDefinition.Operation.QUERY, DocumentCache.scanOperation("{ ping }", null));
+        assertEquals(OperationDefinition.Operation.QUERY, DocumentCache.scanOperation("query Q($id: ID) { ping }", null));
+        assertEquals(OperationDefinition.Operation.MUTATION, DocumentCache.scanOperation("mutation { touch }", null));
+        assertEquals(OperationDefinition.Operation.SUBSCRIPTION, DocumentCache.scanOperation("subscription S { ping }", null));
+    }
+
+    @Test
+    void scanIgnoresCommentsStringsAndDirectives() {
+        assertEquals(OperationDefinition.Operation.MUTATION,
+                DocumentCache.scanOperation("# query Q { ping }\nmutation M @trace { touch }", null));
+        assertEquals(OperationDefinition.Operation.QUERY,
+                DocumentCache.scanOperation("query Q { a(text: \"mutation { touch }\") b(text: \"\"\"}\"\"\") }", null));
+    }
+
+    @Test
+    void scanSelectsTheNamedOperation() {
+        String query = "fragment F on Query { ping } query Read { ...F } mutation Write { touch }";
+
+        assertEquals(OperationDefinition.Operation.QUERY, DocumentCache.scanOperation(query, null));
+        assertEquals(OperationDefinition.Operation.QUERY, DocumentCache.scanOperation(query, "Read"));
+        assertEquals(OperationDefinition.Operation.MUTATION, DocumentCache.scanOperation(query, "Write"));
+        assertNull(DocumentCache.scanOperation(query, "Other"));
+    }
+
+    @Test
+    void scanRejectsText() {
+        assertNull(DocumentCache.scanOperation("select * from orders", null));
+        assertNull(DocumentCache.scanOperation("", null));
+    }
+
+    private ExecutionResult execute(String query, String operationName, boolean readOnly) {
+        return graphQL.execute(ExecutionInput.newExecutionInput()
+                .query(query)
+                .operationName(operationName)
+                .graphQLContext(Map.of(DocumentCache.READ_ONLY, readOnly))
+                .build());
+    }
+}
@@ -0,0 +1,63 @@
+package fr.esgi.galapagos.graphql;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GraphQLRequestTest {
+
+    private final Gson gson = new Gson();
+
+    @Test
+    void parsesAPostBody() {
+        GraphQLRequest request = GraphQLRequest.fromJson(
+                "{\"query\":\"{ a }\",\"operationName\":\"A\",\"variables\":{\"id\":\"1\"},"
+                        + "\"extensions\":{\"persistedQuery\":{\"version\":1,\"sha256Hash\":\"ABC\"}}}", gson);
+
+        assertEquals("{ a }", request.query());
+        assertEquals("A", request.operationName());
+        assertEquals(Map.of("id", "1"), request.variables());
+        assertEquals("abc", request.persistedQueryHash());
+    }
+
+    @Test
+    void emptyBodyGivesNoRequest() {
+        assertNull(GraphQLRequest.fromJson("", gson));
+    }
+
+    @Test
+    void malformedJsonIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> GraphQLRequest.fromJson("{\"query\":", gson));
+        assertThrows(IllegalArgumentException.class, () -> GraphQLRequest.fromJson("\"{ a }\"", gson));
+    }
+
+    @Test
+    void nonObjectVariablesAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> GraphQLRequest.fromJson("{\"query\":\"{ a }\",\"variables\":[1]}", gson));
+        assertThrows(IllegalArgumentException.class,
+                () -> GraphQLRequest.fromJson("{\"query\":\"{ a }\",\"extensions\":\"x\"}", gson));
+    }
+
+    @Test
+    void parsesAQueryString() {
+        GraphQLRequest request = GraphQLRequest.fromQueryString(
+                "query=%7B%20a%20%7D&variables=%7B%22id%22%3A%221%22%7D", gson);
+
+        assertEquals("{ a }", request.query());
+        assertEquals(Map.of("id", "1"), request.variables());
+    }
+
+    @Test
+    void malformedQueryStringVariablesAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> GraphQLRequest.fromQueryString("query=%7B%20a%20%7D&variables=%7B", gson));
+        assertThrows(IllegalArgumentException.class,
+                () -> GraphQLRequest.fromQueryString("query=%7B%20a%20%7D&variables=5", gson));
+    }
+}
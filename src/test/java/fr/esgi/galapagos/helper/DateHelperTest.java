@@ -0,0 +1,121 @@
+package fr.esgi.galapagos.helper;
+
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DateHelperTest {
+
+    @Test
+    void dateOnlyIsMidnightUtc() {
+        assertEquals(Instant.parse("2025-01-31T00:00:00Z"), DateHelper.parseInstant("from", "2025-01-31"));
+    }
+
+    @Test
+    void dateTimeWithoutOffsetIsUtc() {
+        assertEquals(Instant.parse("2025-01-31T12:30:00Z"), DateHelper.parseInstant("from", "2025-01-31T12:30:00"));
+        assertEquals(Instant.parse("2025-01-31T12:30:00Z"), DateHelper.parseInstant("from", "2025-01-31T12:30"));
+    }
+
+    @Test
+    void offsetIsApplied() {
+        assertEquals(Instant.parse("2025-01-31T12:00:00Z"), DateHelper.parseInstant("to", "2025-01-31T12:00:00Z"));
+        assertEquals(Instant.parse("2025-01-31T10:00:00Z"), DateHelper.parseInstant("to", "2025-01-31T12:00:00+02:00"));
+    }
+
+    @Test
+    void missingValueIsNull() {
+        assertNull(DateHelper.parseInstant("from", null));
+    }
+
+    @Test
+    void invalidValueIsRejectedWithTheParameterName() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> DateHelper.parseInstant("to", "31/01/2025"));
+        assertTrue(e.getMessage().contains("to"));
+        assertThrows(IllegalArgumentException.class, () -> DateHelper.parseInstant("from", "2025-02-30"));
+        assertThrows(IllegalArgumentException.class, () -> DateHelper.parseInstant("from", ""));
+    }
+
+    @Test
+    void legacyTextIsReadInTheLegacyZone() {
+        Instant expected = LocalDateTime.parse("2025-01-31T12:00:00").atZone(DateHelper.LEGACY_ZONE).toInstant();
+
+        assertEquals(expected, DateHelper.fromLegacy("2025-01-31T12:00:00"));
+        assertEquals(Instant.parse("2025-01-31T12:00:00Z"), DateHelper.fromLegacy("2025-01-31T12:00:00Z"));
+        assertNull(DateHelper.fromLegacy("pas une date"));
+        assertNull(DateHelper.fromLegacy(" "));
+    }
+
+    @Test
+    void legacyTextRoundTrips() {
+        Instant value = Instant.parse("2025-01-31T12:34:56.789Z");
+
+        assertEquals(value, DateHelper.fromLegacy(DateHelper.toLegacy(value)));
+    }
+
+    @Test
+    void legacyTextSortsChronologically() {
+        // LocalDateTime.toString() omet les secondes et fractions nulles : l'ordre du texte reste celui des dates
+        Instant[] values = {
+                Instant.parse("2025-01-31T11:59:59.999Z"),
+                Instant.parse("2025-01-31T12:00:00Z"),
+                Instant.parse("2025-01-31T12:00:00.001Z"),
+                Instant.parse("2025-01-31T12:00:30Z"),
+                Instant.parse("2025-01-31T12:00:30.500Z"),
+                Instant.parse("2025-01-31T12:01:00Z"),
+                Instant.parse("2025-02-01T00:00:00Z")
+        };
+        for (int i = 1; i < values.length; i++) {
+            String previous = DateHelper.toLegacy(values[i - 1]);
+            String current = DateHelper.toLegacy(values[i]);
+            assertTrue(previous.compareTo(current) < 0, previous + " devrait précéder " + current);
+        }
+    }
+
+    @Test
+    void rangeWithoutLegacyDatesComparesBsonDatesOnly() {
+        Instant from = Instant.parse("2025-01-01T00:00:00Z");
+        Instant to = Instant.parse("2025-02-01T00:00:00Z");
+
+        String filter = DateHelper.range("order_date", from, to, false).toBsonDocument().toJson();
+
+        assertFalse(filter.contains("$or"));
+        assertTrue(filter.contains("$gte"));
+        assertTrue(filter.contains("$lt"));
+        assertFalse(filter.contains("$type"));
+    }
+
+    @Test
+    void rangeWithLegacyDatesAlsoComparesTheTextForm() {
+        Instant from = Instant.parse("2025-01-01T00:00:00Z");
+        Instant to = Instant.parse("2025-02-01T00:00:00Z");
+
+        BsonDocument filter = DateHelper.range("order_date", from, to, true).toBsonDocument();
+
+        assertEquals(2, filter.getArray("$or").size());
+        String json = filter.toJson();
+        assertTrue(json.contains("\"" + DateHelper.toLegacy(from) + "\""));
+        assertTrue(json.contains("\"" + DateHelper.toLegacy(to) + "\""));
+        assertTrue(json.contains("$type"));
+    }
+
+    @Test
+    void rangeWithASingleBound() {
+        Instant from = Instant.parse("2025-01-01T00:00:00Z");
+
+        String filter = DateHelper.range("departure_date", from, null, true).toBsonDocument().toJson();
+
+        assertTrue(filter.contains("$gte"));
+        assertFalse(filter.contains("$lt\""));
+        assertTrue(filter.contains("\"" + DateHelper.toLegacy(from) + "\""));
+    }
+}
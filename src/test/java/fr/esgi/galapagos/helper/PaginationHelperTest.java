@@ -0,0 +1,146 @@
+package fr.esgi.galapagos.helper;
+
+import fr.esgi.galapagos.helper.PaginationHelper.Connection;
+import fr.esgi.galapagos.helper.PaginationHelper.DateCursor;
+import org.bson.BsonArray;
+import org.bson.BsonDateTime;
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaginationHelperTest {
+
+    @Test
+    void objectIdCursorRoundTrips() {
+        ObjectId id = new ObjectId();
+
+        String cursor = PaginationHelper.encodeCursor(id.toHexString());
+
+        assertEquals(id, PaginationHelper.decodeObjectIdCursor(cursor));
+    }
+
+    @Test
+    void cursorIsUrlSafe() {
+        String cursor = PaginationHelper.encodeCursor("ÿþý:?&/");
+
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"));
+        assertEquals("ÿþý:?&/", PaginationHelper.decodeCursor(cursor));
+    }
+
+    @Test
+    void missingCursorDecodesToNull() {
+        assertNull(PaginationHelper.decodeCursor(null));
+        assertNull(PaginationHelper.decodeObjectIdCursor(null));
+    }
+
+    @Test
+    void invalidObjectIdCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> PaginationHelper.decodeObjectIdCursor("%%%"));
+        assertThrows(IllegalArgumentException.class,
+                () -> PaginationHelper.decodeObjectIdCursor(PaginationHelper.encodeCursor("pas-un-objectid")));
+    }
+
+    @Test
+    void dateCursorRoundTrips() {
+        Instant date = Instant.parse("2025-01-31T12:00:00.123Z");
+        ObjectId id = new ObjectId();
+
+        String cursor = PaginationHelper.encodeCursor(PaginationHelper.dateCursorValue(date, id));
+
+        assertTrue(PaginationHelper.isDateCursor(cursor));
+        assertEquals(new DateCursor(date, id), PaginationHelper.decodeDateCursor(cursor));
+    }
+
+    @Test
+    void dateCursorKeepsMillisecondPrecisionOnly() {
+        Instant date = Instant.parse("2025-01-31T12:00:00.123456789Z");
+        ObjectId id = new ObjectId();
+
+        DateCursor cursor = PaginationHelper.decodeDateCursor(
+                PaginationHelper.encodeCursor(PaginationHelper.dateCursorValue(date, id)));
+
+        // Précision d'une BSON Date : le curseur désigne bien la valeur stockée
+        assertEquals(Instant.parse("2025-01-31T12:00:00.123Z"), cursor.date());
+    }
+
+    @Test
+    void objectIdAndDateCursorsAreDistinguished() {
+        String idCursor = PaginationHelper.encodeCursor(new ObjectId().toHexString());
+
+        assertFalse(PaginationHelper.isDateCursor(idCursor));
+        assertFalse(PaginationHelper.isDateCursor(null));
+        assertThrows(IllegalArgumentException.class, () -> PaginationHelper.decodeDateCursor(idCursor));
+    }
+
+    @Test
+    void invalidDateCursorIsRejected() {
+        String id = new ObjectId().toHexString();
+
+        assertNull(PaginationHelper.decodeDateCursor(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> PaginationHelper.decodeDateCursor(PaginationHelper.encodeCursor("abc:" + id)));
+        assertThrows(IllegalArgumentException.class,
+                () -> PaginationHelper.decodeDateCursor(PaginationHelper.encodeCursor("1700000000000:xyz")));
+    }
+
+    @Test
+    void afterBreaksDateTiesOnId() {
+        Instant date = Instant.parse("2025-01-31T12:00:00Z");
+        ObjectId id = new ObjectId();
+
+        BsonDocument filter = PaginationHelper.after("order_date", new DateCursor(date, id)).toBsonDocument();
+
+        // date > curseur, ou même date et _id > curseur
+        BsonDateTime bsonDate = new BsonDateTime(date.toEpochMilli());
+        BsonDocument expected = new BsonDocument("$or", new BsonArray(List.of(
+                new BsonDocument("order_date", new BsonDocument("$gt", bsonDate)),
+                new BsonDocument("$and", new BsonArray(List.of(
+                        new BsonDocument("order_date", bsonDate),
+                        new BsonDocument("_id", new BsonDocument("$gt", new BsonObjectId(id)))
+                )))
+        )));
+        assertEquals(expected, filter);
+    }
+
+    @Test
+    void connectionDropsTheExtraItemAndReportsANextPage() {
+        Connection<String> connection = PaginationHelper.connection(List.of("a", "b", "c"), 2, true, value -> value);
+
+        assertEquals(2, connection.edges().size());
+        assertEquals("a", connection.edges().get(0).node());
+        assertEquals("b", connection.edges().get(1).node());
+        assertTrue(connection.pageInfo().hasNextPage());
+        assertTrue(connection.pageInfo().hasPreviousPage());
+        assertEquals(PaginationHelper.encodeCursor("a"), connection.pageInfo().startCursor());
+        assertEquals(PaginationHelper.encodeCursor("b"), connection.pageInfo().endCursor());
+    }
+
+    @Test
+    void lastPageHasNoNextPage() {
+        Connection<String> connection = PaginationHelper.connection(List.of("a", "b"), 2, false, value -> value);
+
+        assertEquals(2, connection.edges().size());
+        assertFalse(connection.pageInfo().hasNextPage());
+        assertFalse(connection.pageInfo().hasPreviousPage());
+    }
+
+    @Test
+    void emptyPageHasNoCursors() {
+        Connection<String> connection = PaginationHelper.connection(List.of(), 10, false, value -> value);
+
+        assertTrue(connection.edges().isEmpty());
+        assertFalse(connection.pageInfo().hasNextPage());
+        assertNull(connection.pageInfo().startCursor());
+        assertNull(connection.pageInfo().endCursor());
+    }
+}
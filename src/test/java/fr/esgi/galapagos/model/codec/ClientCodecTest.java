@@ -0,0 +1,60 @@
+package fr.esgi.galapagos.model.codec;
+
+import fr.esgi.galapagos.model.mongodb.Client;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonNull;
+import org.bson.BsonObjectId;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ClientCodecTest {
+
+    private final ClientCodec codec = new ClientCodec();
+
+    @Test
+    void nullOrderHistoryElementIsWrittenAsBsonNull() {
+        ObjectId first = new ObjectId();
+        ObjectId second = new ObjectId();
+        Client client = new Client();
+        client.setId(new ObjectId());
+        client.setName("Darwin");
+        client.setOrderHistory(Arrays.asList(first, null, second));
+
+        BsonDocument document = encode(client);
+
+        assertEquals(List.of(new BsonObjectId(first), BsonNull.VALUE, new BsonObjectId(second)),
+                document.getArray("order_history").getValues());
+        assertEquals(Arrays.asList(first, null, second), decode(document).getOrderHistory());
+    }
+
+    @Test
+    void missingOrderHistoryIsWrittenAsNull() {
+        Client client = new Client();
+        client.setId(new ObjectId());
+
+        BsonDocument document = encode(client);
+
+        assertEquals(BsonNull.VALUE, document.get("order_history"));
+        assertNull(decode(document).getOrderHistory());
+    }
+
+    private BsonDocument encode(Client client) {
+        BsonDocument document = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(document), client, EncoderContext.builder().build());
+        return document;
+    }
+
+    private Client decode(BsonDocument document) {
+        return codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+    }
+}
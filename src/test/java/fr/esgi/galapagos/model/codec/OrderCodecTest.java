@@ -0,0 +1,70 @@
+package fr.esgi.galapagos.model.codec;
+
+import fr.esgi.galapagos.helper.DateHelper;
+import fr.esgi.galapagos.model.mongodb.Order;
+import org.bson.BsonDateTime;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class OrderCodecTest {
+
+    private final OrderCodec codec = new OrderCodec();
+
+    @Test
+    void legacyTextDateIsReadAndWrittenBackAsBsonDate() {
+        BsonDocument legacy = new BsonDocument("_id", new BsonObjectId(new ObjectId()))
+                .append("order_date", new BsonString("2025-01-31T12:00:30.500"));
+
+        Order order = decode(legacy);
+
+        Instant expected = LocalDateTime.parse("2025-01-31T12:00:30.500").atZone(DateHelper.LEGACY_ZONE).toInstant();
+        assertEquals(expected, order.getOrderDate());
+
+        BsonDocument written = encode(order);
+        assertEquals(new BsonDateTime(expected.toEpochMilli()), written.get("order_date"));
+        assertEquals(expected, decode(written).getOrderDate());
+    }
+
+    @Test
+    void bsonDateRoundTrips() {
+        Instant date = Instant.parse("2025-01-31T12:00:00.123Z");
+        BsonDocument document = new BsonDocument("_id", new BsonObjectId(new ObjectId()))
+                .append("order_date", new BsonDateTime(date.toEpochMilli()));
+
+        Order order = decode(document);
+
+        assertEquals(date, order.getOrderDate());
+        assertEquals(document.get("order_date"), encode(order).get("order_date"));
+    }
+
+    @Test
+    void unreadableLegacyDateIsNull() {
+        BsonDocument legacy = new BsonDocument("_id", new BsonObjectId(new ObjectId()))
+                .append("order_date", new BsonString("hier"));
+
+        assertNull(decode(legacy).getOrderDate());
+    }
+
+    private BsonDocument encode(Order order) {
+        BsonDocument document = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(document), order, EncoderContext.builder().build());
+        return document;
+    }
+
+    private Order decode(BsonDocument document) {
+        return codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+    }
+}
@@ -0,0 +1,48 @@
+package fr.esgi.galapagos.server;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonResponseWriterTest {
+
+    @Test
+    void gzipIsAcceptedWhenListedWithoutWeight() {
+        assertTrue(JsonResponseWriter.acceptsGzip("gzip"));
+        assertTrue(JsonResponseWriter.acceptsGzip("deflate, gzip, br"));
+        assertTrue(JsonResponseWriter.acceptsGzip("GZIP"));
+    }
+
+    @Test
+    void gzipIsAcceptedWithAPositiveWeight() {
+        assertTrue(JsonResponseWriter.acceptsGzip("gzip;q=0.5"));
+        assertTrue(JsonResponseWriter.acceptsGzip("gzip ; q=0.001"));
+        assertTrue(JsonResponseWriter.acceptsGzip("gzip;q=1.0"));
+    }
+
+    @Test
+    void gzipIsRefusedWithAZeroWeight() {
+        assertFalse(JsonResponseWriter.acceptsGzip("gzip;q=0"));
+        assertFalse(JsonResponseWriter.acceptsGzip("gzip;q=0.0"));
+        assertFalse(JsonResponseWriter.acceptsGzip("gzip; q=0.000"));
+        assertFalse(JsonResponseWriter.acceptsGzip("gzip;q=abc"));
+    }
+
+    @Test
+    void wildcardOnlyAppliesWhenGzipIsNotListed() {
+        assertTrue(JsonResponseWriter.acceptsGzip("*"));
+        assertTrue(JsonResponseWriter.acceptsGzip("br, *;q=0.1"));
+        assertFalse(JsonResponseWriter.acceptsGzip("*;q=0"));
+        assertFalse(JsonResponseWriter.acceptsGzip("*, gzip;q=0"));
+        assertFalse(JsonResponseWriter.acceptsGzip("gzip;q=0, *"));
+    }
+
+    @Test
+    void missingOrUnrelatedHeaderDoesNotEnableGzip() {
+        assertFalse(JsonResponseWriter.acceptsGzip((String) null));
+        assertFalse(JsonResponseWriter.acceptsGzip(""));
+        assertFalse(JsonResponseWriter.acceptsGzip("br, deflate"));
+        assertFalse(JsonResponseWriter.acceptsGzip("identity"));
+    }
+}
@@ -0,0 +1,104 @@
+package fr.esgi.galapagos.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImportServiceTest {
+
+    @Test
+    void readsLinesUntilTheEndOfTheStream() throws IOException {
+        ImportService.LineReader lines = new ImportService.LineReader(new StringReader("{\"a\":1}\n\n{\"b\":2}"), 100);
+
+        assertEquals("{\"a\":1}", lines.readLine());
+        assertEquals("", lines.readLine());
+        assertEquals("{\"b\":2}", lines.readLine());
+        assertNull(lines.readLine());
+    }
+
+    @Test
+    void trailingNewlineDoesNotAddAnEmptyLine() throws IOException {
+        ImportService.LineReader lines = new ImportService.LineReader(new StringReader("a\nb\n"), 100);
+
+        assertEquals("a", lines.readLine());
+        assertEquals("b", lines.readLine());
+        assertNull(lines.readLine());
+    }
+
+    @Test
+    void stripsTheCarriageReturnOfCrlfLines() throws IOException {
+        ImportService.LineReader lines = new ImportService.LineReader(new StringReader("a\r\nb\r\n"), 100);
+
+        assertEquals("a", lines.readLine());
+        assertEquals("b", lines.readLine());
+        assertNull(lines.readLine());
+    }
+
+    @Test
+    void lineAtTheCapIsKeptWithLfOrCrlf() throws IOException {
+        ImportService.LineReader lines = new ImportService.LineReader(new StringReader("abcde\nfghij\r\n"), 5);
+
+        assertEquals("abcde", lines.readLine());
+        assertFalse(lines.oversized);
+        assertEquals("fghij", lines.readLine());
+        assertFalse(lines.oversized);
+        assertNull(lines.readLine());
+    }
+
+    @Test
+    void longerLineIsFlaggedAndTheNextLineIsStillRead() throws IOException {
+        ImportService.LineReader lines = new ImportService.LineReader(new StringReader("abcdef\nok\nabcdefghij\r\nend"), 5);
+
+        assertEquals("", lines.readLine());
+        assertTrue(lines.oversized);
+        assertEquals("ok", lines.readLine());
+        assertFalse(lines.oversized);
+        assertEquals("", lines.readLine());
+        assertTrue(lines.oversized);
+        assertEquals("end", lines.readLine());
+        assertFalse(lines.oversized);
+        assertNull(lines.readLine());
+    }
+
+    @Test
+    void oversizedLineSpanningSeveralChunksIsNotKeptInMemory() throws IOException {
+        // 8192 caractères par lecture : la ligne couvre plusieurs lectures du Reader
+        String longLine = "x".repeat(50_000);
+        ImportService.LineReader lines = new ImportService.LineReader(new StringReader(longLine + "\nnext"), 1000);
+
+        assertEquals("", lines.readLine());
+        assertTrue(lines.oversized);
+        assertEquals("next", lines.readLine());
+        assertNull(lines.readLine());
+    }
+
+    @Test
+    void lineSplitAcrossShortReadsIsReassembled() throws IOException {
+        // Reader qui ne rend qu'un caractère à la fois (flux décompressé, réseau lent)
+        Reader slow = new Reader() {
+            private final StringReader source = new StringReader("first\r\nsecond\n");
+
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                return source.read(buffer, offset, Math.min(length, 1));
+            }
+
+            @Override
+            public void close() {
+                source.close();
+            }
+        };
+        ImportService.LineReader lines = new ImportService.LineReader(slow, 6);
+
+        assertEquals("first", lines.readLine());
+        assertEquals("second", lines.readLine());
+        assertNull(lines.readLine());
+    }
+}
@@ -0,0 +1,211 @@
+package fr.esgi.galapagos.service;
+
+import fr.esgi.galapagos.model.enums.LockerStatus;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LockerAllocatorTest {
+
+    private static final int PORT = 1;
+
+    private final LockerAllocator allocator = new LockerAllocator();
+
+    @Test
+    void claimReservesAnEmptyLockerOnce() {
+        ObjectId id = new ObjectId();
+        allocator.set(PORT, 1, id, LockerStatus.EMPTY);
+
+        LockerAllocator.Claim claim = allocator.claim(PORT);
+
+        assertEquals(new LockerAllocator.Claim(PORT, 1, id), claim);
+        assertNull(allocator.claim(PORT));
+    }
+
+    @Test
+    void claimReturnsNullForAnUnknownPort() {
+        allocator.set(PORT, 1, new ObjectId(), LockerStatus.EMPTY);
+
+        assertNull(allocator.claim(2));
+    }
+
+    @Test
+    void claimSkipsLockersThatAreNotEmpty() {
+        allocator.set(PORT, 1, new ObjectId(), LockerStatus.OCCUPIED);
+        allocator.set(PORT, 2, new ObjectId(), LockerStatus.RESERVED);
+        allocator.set(PORT, 3, new ObjectId(), LockerStatus.MAINTENANCE);
+        ObjectId empty = new ObjectId();
+        allocator.set(PORT, 4, empty, LockerStatus.EMPTY);
+
+        assertEquals(new LockerAllocator.Claim(PORT, 4, empty), allocator.claim(PORT));
+        assertNull(allocator.claim(PORT));
+    }
+
+    @Test
+    void releasedLockerCanBeClaimedAgain() {
+        ObjectId id = new ObjectId();
+        allocator.set(PORT, 1, id, LockerStatus.EMPTY);
+        assertNotNull(allocator.claim(PORT));
+
+        allocator.set(PORT, 1, id, LockerStatus.EMPTY);
+
+        assertEquals(new LockerAllocator.Claim(PORT, 1, id), allocator.claim(PORT));
+    }
+
+    @Test
+    void settingTheSameStatusTwiceCountsTheLockerOnce() {
+        ObjectId id = new ObjectId();
+        allocator.set(PORT, 1, id, LockerStatus.EMPTY);
+        allocator.set(PORT, 1, id, LockerStatus.EMPTY);
+
+        assertNotNull(allocator.claim(PORT));
+        assertNull(allocator.claim(PORT));
+    }
+
+    @Test
+    void leavingEmptyUpdatesTheFreeCounter() {
+        allocator.set(PORT, 1, new ObjectId(), LockerStatus.EMPTY);
+        allocator.set(PORT, 1, null, LockerStatus.OCCUPIED);
+
+        assertNull(allocator.claim(PORT));
+
+        allocator.set(PORT, 1, null, LockerStatus.EMPTY);
+
+        assertNotNull(allocator.claim(PORT));
+    }
+
+    @Test
+    void removedLockerIsNeverClaimed() {
+        allocator.set(PORT, 1, new ObjectId(), LockerStatus.EMPTY);
+        allocator.remove(PORT, 1);
+
+        assertNull(allocator.claim(PORT));
+
+        // Numéro réutilisé par un nouveau casier
+        ObjectId replacement = new ObjectId();
+        allocator.set(PORT, 1, replacement, LockerStatus.EMPTY);
+
+        assertEquals(new LockerAllocator.Claim(PORT, 1, replacement), allocator.claim(PORT));
+    }
+
+    @Test
+    void nullStatusRemovesTheLocker() {
+        allocator.set(PORT, 1, new ObjectId(), LockerStatus.EMPTY);
+        allocator.set(PORT, 1, null, null);
+
+        assertNull(allocator.claim(PORT));
+    }
+
+    @Test
+    void neighbouringSlotsOfAWordAreIndependent() {
+        for (int number = 1; number <= 21; number++) {
+            allocator.set(PORT, number, new ObjectId(), LockerStatus.OCCUPIED);
+        }
+        allocator.set(PORT, 20, null, LockerStatus.EMPTY);
+
+        LockerAllocator.Claim claim = allocator.claim(PORT);
+
+        assertNotNull(claim);
+        assertEquals(20, claim.number());
+        assertNull(allocator.claim(PORT));
+
+        // 19 et 21 n'ont pas été touchés par le CAS sur le slot 20
+        allocator.set(PORT, 19, null, LockerStatus.EMPTY);
+        allocator.set(PORT, 21, null, LockerStatus.EMPTY);
+        Set<Integer> claimed = Set.of(allocator.claim(PORT).number(), allocator.claim(PORT).number());
+        assertEquals(Set.of(19, 21), claimed);
+        assertNull(allocator.claim(PORT));
+    }
+
+    @Test
+    void numbersAcrossSegmentBoundariesKeepTheirIds() {
+        // 21 : dernier slot du premier segment, 22 : premier du deuxième, 42 : dernier du deuxième
+        ObjectId id21 = new ObjectId();
+        ObjectId id22 = new ObjectId();
+        ObjectId id42 = new ObjectId();
+        allocator.set(PORT, 42, id42, LockerStatus.EMPTY);
+        allocator.set(PORT, 21, id21, LockerStatus.EMPTY);
+        allocator.set(PORT, 22, id22, LockerStatus.EMPTY);
+
+        Set<LockerAllocator.Claim> claims = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            LockerAllocator.Claim claim = allocator.claim(PORT);
+            assertNotNull(claim);
+            claims.add(claim);
+        }
+
+        assertEquals(Set.of(
+                new LockerAllocator.Claim(PORT, 21, id21),
+                new LockerAllocator.Claim(PORT, 22, id22),
+                new LockerAllocator.Claim(PORT, 42, id42)
+        ), claims);
+        assertNull(allocator.claim(PORT));
+    }
+
+    @Test
+    void segmentsGrowWithoutLosingExistingStates() {
+        ObjectId first = new ObjectId();
+        allocator.set(PORT, 1, first, LockerStatus.EMPTY);
+        // Quatrième segment : le tableau est agrandi après que le premier a été créé
+        ObjectId far = new ObjectId();
+        allocator.set(PORT, 64, far, LockerStatus.EMPTY);
+
+        Set<LockerAllocator.Claim> claims = Set.of(allocator.claim(PORT), allocator.claim(PORT));
+
+        assertEquals(Set.of(new LockerAllocator.Claim(PORT, 1, first), new LockerAllocator.Claim(PORT, 64, far)), claims);
+        assertNull(allocator.claim(PORT));
+    }
+
+    @Test
+    void concurrentClaimsNeverReturnTheSameLocker() throws Exception {
+        int lockers = 500;
+        for (int number = 1; number <= lockers; number++) {
+            allocator.set(PORT, number, new ObjectId(), LockerStatus.EMPTY);
+        }
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        Set<Integer> claimed = ConcurrentHashMap.newKeySet();
+        List<Future<Integer>> counts = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                counts.add(executor.submit(() -> {
+                    start.await();
+                    int count = 0;
+                    LockerAllocator.Claim claim;
+                    while ((claim = allocator.claim(PORT)) != null) {
+                        assertTrue(claimed.add(claim.number()), "Casier attribué deux fois : " + claim.number());
+                        count++;
+                    }
+                    return count;
+                }));
+            }
+            start.countDown();
+
+            int total = 0;
+            for (Future<Integer> count : counts) {
+                total += count.get(10, TimeUnit.SECONDS);
+            }
+            assertEquals(lockers, total);
+            assertEquals(lockers, claimed.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}